@@ -0,0 +1,56 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.benchmarks;
+
+import com.joanzapata.mapper.Mapper;
+import com.joanzapata.mapper.benchmarks.model.Book;
+import com.joanzapata.mapper.benchmarks.model.BookDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** A book with its entries in a list and in a map, each entry referencing the book back. */
+@State(Scope.Benchmark)
+public class BookGraphBenchmark extends AbstractBenchmark {
+
+    @Param({"10", "100"})
+    public int entryCount;
+
+    private Mapper mapper;
+
+    private Book book;
+
+    @Setup
+    public void setUp() {
+        mapper = new Mapper();
+        book = Fixtures.book(entryCount);
+    }
+
+    @Benchmark
+    public BookDTO mapper() {
+        return mapper.map(book, BookDTO.class);
+    }
+
+    @Benchmark
+    public BookDTO handWritten() {
+        return HandWritten.map(book);
+    }
+}
@@ -0,0 +1,79 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.benchmarks;
+
+import com.joanzapata.mapper.Mapper;
+import com.joanzapata.mapper.benchmarks.model.Person;
+import com.joanzapata.mapper.benchmarks.model.PersonDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Large lists, sets and maps given directly to the Mapper. */
+@State(Scope.Benchmark)
+public class CollectionBenchmark extends AbstractBenchmark {
+
+    @Param({"1000", "100000"})
+    public int size;
+
+    private Mapper mapper;
+
+    private List<Person> list;
+
+    private Set<Person> set;
+
+    private Map<Long, Person> map;
+
+    @Setup
+    public void setUp() {
+        mapper = new Mapper();
+        list = Fixtures.persons(size);
+        set = new HashSet<Person>(list);
+        map = new HashMap<Long, Person>();
+        for (Person person : list) map.put(person.getId(), person);
+    }
+
+    @Benchmark
+    public List<PersonDTO> list() {
+        return mapper.map(list, PersonDTO.class);
+    }
+
+    @Benchmark
+    public Set<PersonDTO> set() {
+        return mapper.map(set, PersonDTO.class);
+    }
+
+    @Benchmark
+    public Map<Long, PersonDTO> map() {
+        return mapper.map(map, Long.class, PersonDTO.class);
+    }
+
+    @Benchmark
+    public List<PersonDTO> listHandWritten() {
+        return HandWritten.mapPersons(list);
+    }
+}
@@ -0,0 +1,56 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.benchmarks;
+
+import com.joanzapata.mapper.Mapper;
+import com.joanzapata.mapper.benchmarks.model.Node;
+import com.joanzapata.mapper.benchmarks.model.NodeDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** A ring of nodes, where every node is reached several times. */
+@State(Scope.Benchmark)
+public class CyclicGraphBenchmark extends AbstractBenchmark {
+
+    @Param({"100", "1000"})
+    public int nodeCount;
+
+    private Mapper mapper;
+
+    private Node ring;
+
+    @Setup
+    public void setUp() {
+        mapper = new Mapper();
+        ring = Fixtures.ring(nodeCount);
+    }
+
+    @Benchmark
+    public NodeDTO mapper() {
+        return mapper.map(ring, NodeDTO.class);
+    }
+
+    @Benchmark
+    public NodeDTO handWritten() {
+        return HandWritten.map(ring);
+    }
+}
@@ -0,0 +1,89 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.benchmarks;
+
+import com.joanzapata.mapper.CustomMapper;
+import com.joanzapata.mapper.Hook;
+import com.joanzapata.mapper.Mapper;
+import com.joanzapata.mapper.MappingContext;
+import com.joanzapata.mapper.benchmarks.model.Book;
+import com.joanzapata.mapper.benchmarks.model.BookDTO;
+import com.joanzapata.mapper.benchmarks.model.Contact;
+import com.joanzapata.mapper.benchmarks.model.ContactDTO;
+import com.joanzapata.mapper.benchmarks.model.Phone;
+import com.joanzapata.mapper.benchmarks.model.PhoneDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * A contact whose phones are mapped by a custom mapper, with a number of
+ * unrelated custom mappers and hooks registered, as in a real application.
+ */
+@State(Scope.Benchmark)
+public class DispatchBenchmark extends AbstractBenchmark {
+
+    @Param({"0", "30"})
+    public int unrelatedCount;
+
+    private Mapper mapper;
+
+    private Contact contact;
+
+    @Setup
+    public void setUp() {
+        mapper = new Mapper();
+        for (int i = 0; i < unrelatedCount; i++) {
+            mapper.customMapper(new CustomMapper<Book, BookDTO>() {
+                @Override
+                public BookDTO map(Book source, MappingContext context) {
+                    return new BookDTO();
+                }
+            });
+            mapper.hook(new Hook<Book, BookDTO>() {
+                @Override
+                public void extraMapping(Book from, BookDTO to) {
+                }
+            });
+        }
+        mapper.customMapper(new CustomMapper<Phone, PhoneDTO>() {
+            @Override
+            public PhoneDTO map(Phone source, MappingContext context) {
+                PhoneDTO phoneDTO = new PhoneDTO();
+                phoneDTO.setNumber(source.getNumber());
+                phoneDTO.setLabel(source.getLabel());
+                return phoneDTO;
+            }
+        });
+        mapper.hook(new Hook<Contact, ContactDTO>() {
+            @Override
+            public void extraMapping(Contact from, ContactDTO to) {
+                to.setName(to.getName().toUpperCase());
+            }
+        });
+        contact = Fixtures.contact(5);
+    }
+
+    @Benchmark
+    public ContactDTO mapper() {
+        return mapper.map(contact, ContactDTO.class);
+    }
+}
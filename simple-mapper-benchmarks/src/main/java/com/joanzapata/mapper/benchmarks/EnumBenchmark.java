@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.benchmarks;
+
+import com.joanzapata.mapper.Mapper;
+import com.joanzapata.mapper.benchmarks.model.Order;
+import com.joanzapata.mapper.benchmarks.model.OrderDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/** Orders made mostly of enums, and lists of enums. */
+@State(Scope.Benchmark)
+public class EnumBenchmark extends AbstractBenchmark {
+
+    private Mapper mapper;
+
+    private List<Order> orders;
+
+    @Setup
+    public void setUp() {
+        mapper = new Mapper();
+        orders = Fixtures.orders(1000);
+    }
+
+    @Benchmark
+    public List<OrderDTO> mapper() {
+        return mapper.map(orders, OrderDTO.class);
+    }
+
+    @Benchmark
+    public List<OrderDTO> handWritten() {
+        return HandWritten.mapOrders(orders);
+    }
+}
@@ -0,0 +1,130 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.benchmarks;
+
+import com.joanzapata.mapper.benchmarks.model.Book;
+import com.joanzapata.mapper.benchmarks.model.BookEntry;
+import com.joanzapata.mapper.benchmarks.model.Contact;
+import com.joanzapata.mapper.benchmarks.model.Node;
+import com.joanzapata.mapper.benchmarks.model.Order;
+import com.joanzapata.mapper.benchmarks.model.Person;
+import com.joanzapata.mapper.benchmarks.model.Phone;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Builds the source models used by the benchmarks. */
+final class Fixtures {
+
+    private Fixtures() {
+    }
+
+    static Person person(long id) {
+        Person person = new Person();
+        person.setId(id);
+        person.setFirstName("John");
+        person.setLastName("Doe");
+        person.setEmail("john.doe@example.com");
+        person.setAge(42);
+        person.setScore(12.5);
+        person.setActive(true);
+        person.setCreatedAt(1380000000000L + id);
+        person.setCity("Paris");
+        person.setCountry("France");
+        return person;
+    }
+
+    static List<Person> persons(int size) {
+        List<Person> persons = new ArrayList<Person>(size);
+        for (int i = 0; i < size; i++) persons.add(person(i));
+        return persons;
+    }
+
+    /** A book whose entries reference the book back. */
+    static Book book(int entryCount) {
+        Book book = new Book();
+        book.setId(1L);
+        book.setName("Book");
+        List<BookEntry> entries = new ArrayList<BookEntry>(entryCount);
+        Map<Long, BookEntry> entriesById = new HashMap<Long, BookEntry>();
+        for (int i = 0; i < entryCount; i++) {
+            BookEntry entry = new BookEntry();
+            entry.setId(i);
+            entry.setLabel("Entry " + i);
+            entry.setBook(book);
+            entries.add(entry);
+            entriesById.put((long) i, entry);
+        }
+        book.setEntries(entries);
+        book.setEntriesById(entriesById);
+        return book;
+    }
+
+    /** A ring of nodes, each node also referencing its two neighbours. */
+    static Node ring(int size) {
+        List<Node> nodes = new ArrayList<Node>(size);
+        for (int i = 0; i < size; i++) {
+            Node node = new Node();
+            node.setId(i);
+            nodes.add(node);
+        }
+        for (int i = 0; i < size; i++) {
+            Node node = nodes.get(i);
+            node.setNext(nodes.get((i + 1) % size));
+            List<Node> neighbours = new ArrayList<Node>(2);
+            neighbours.add(nodes.get((i + size - 1) % size));
+            neighbours.add(nodes.get((i + 1) % size));
+            node.setNeighbours(neighbours);
+        }
+        return nodes.get(0);
+    }
+
+    static List<Order> orders(int size) {
+        Order.Status[] statuses = Order.Status.values();
+        Order.Priority[] priorities = Order.Priority.values();
+        List<Order> orders = new ArrayList<Order>(size);
+        for (int i = 0; i < size; i++) {
+            Order order = new Order();
+            order.setId(i);
+            order.setStatus(statuses[i % statuses.length]);
+            order.setPriority(priorities[i % priorities.length]);
+            List<Order.Status> history = new ArrayList<Order.Status>(statuses.length);
+            for (int j = 0; j <= i % statuses.length; j++) history.add(statuses[j]);
+            order.setHistory(history);
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    static Contact contact(int phoneCount) {
+        Contact contact = new Contact();
+        contact.setName("John Doe");
+        List<Phone> phones = new ArrayList<Phone>(phoneCount);
+        for (int i = 0; i < phoneCount; i++) {
+            Phone phone = new Phone();
+            phone.setNumber("+33 1 23 45 67 8" + i);
+            phone.setLabel("Phone " + i);
+            phones.add(phone);
+        }
+        contact.setPhones(phones);
+        return contact;
+    }
+}
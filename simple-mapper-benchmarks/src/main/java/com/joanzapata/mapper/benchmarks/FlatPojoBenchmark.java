@@ -0,0 +1,61 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.benchmarks;
+
+import com.joanzapata.mapper.Mapper;
+import com.joanzapata.mapper.TypedMapper;
+import com.joanzapata.mapper.benchmarks.model.Person;
+import com.joanzapata.mapper.benchmarks.model.PersonDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** A POJO with ten properties, strings and primitives. */
+@State(Scope.Benchmark)
+public class FlatPojoBenchmark extends AbstractBenchmark {
+
+    private Mapper mapper;
+
+    private TypedMapper<Person, PersonDTO> typedMapper;
+
+    private Person person;
+
+    @Setup
+    public void setUp() {
+        mapper = new Mapper();
+        typedMapper = mapper.forTypes(Person.class, PersonDTO.class);
+        person = Fixtures.person(1);
+    }
+
+    @Benchmark
+    public PersonDTO mapper() {
+        return mapper.map(person, PersonDTO.class);
+    }
+
+    @Benchmark
+    public PersonDTO typedMapper() {
+        return typedMapper.map(person);
+    }
+
+    @Benchmark
+    public PersonDTO handWritten() {
+        return HandWritten.map(person);
+    }
+}
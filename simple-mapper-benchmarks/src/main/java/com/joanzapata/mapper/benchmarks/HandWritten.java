@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.benchmarks;
+
+import com.joanzapata.mapper.benchmarks.model.Book;
+import com.joanzapata.mapper.benchmarks.model.BookDTO;
+import com.joanzapata.mapper.benchmarks.model.BookEntry;
+import com.joanzapata.mapper.benchmarks.model.BookEntryDTO;
+import com.joanzapata.mapper.benchmarks.model.Node;
+import com.joanzapata.mapper.benchmarks.model.NodeDTO;
+import com.joanzapata.mapper.benchmarks.model.Order;
+import com.joanzapata.mapper.benchmarks.model.OrderDTO;
+import com.joanzapata.mapper.benchmarks.model.Person;
+import com.joanzapata.mapper.benchmarks.model.PersonDTO;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Mappings written by hand, the baseline the Mapper is compared to. */
+final class HandWritten {
+
+    private HandWritten() {
+    }
+
+    static PersonDTO map(Person source) {
+        PersonDTO destination = new PersonDTO();
+        destination.setId(source.getId());
+        destination.setFirstName(source.getFirstName());
+        destination.setLastName(source.getLastName());
+        destination.setEmail(source.getEmail());
+        destination.setAge(source.getAge());
+        destination.setScore(source.getScore());
+        destination.setActive(source.isActive());
+        destination.setCreatedAt(source.getCreatedAt());
+        destination.setCity(source.getCity());
+        destination.setCountry(source.getCountry());
+        return destination;
+    }
+
+    static List<PersonDTO> mapPersons(List<Person> source) {
+        List<PersonDTO> destination = new ArrayList<PersonDTO>(source.size());
+        for (Person person : source) destination.add(map(person));
+        return destination;
+    }
+
+    static BookDTO map(Book source) {
+        BookDTO destination = new BookDTO();
+        destination.setId(source.getId());
+        destination.setName(source.getName());
+        Map<BookEntry, BookEntryDTO> mappedEntries = new IdentityHashMap<BookEntry, BookEntryDTO>();
+        List<BookEntryDTO> entries = new ArrayList<BookEntryDTO>(source.getEntries().size());
+        for (BookEntry entry : source.getEntries()) {
+            entries.add(map(entry, destination, mappedEntries));
+        }
+        destination.setEntries(entries);
+        Map<Long, BookEntryDTO> entriesById = new HashMap<Long, BookEntryDTO>();
+        for (Map.Entry<Long, BookEntry> entry : source.getEntriesById().entrySet()) {
+            entriesById.put(entry.getKey(), map(entry.getValue(), destination, mappedEntries));
+        }
+        destination.setEntriesById(entriesById);
+        return destination;
+    }
+
+    private static BookEntryDTO map(BookEntry source, BookDTO book, Map<BookEntry, BookEntryDTO> mappedEntries) {
+        BookEntryDTO destination = mappedEntries.get(source);
+        if (destination != null) return destination;
+        destination = new BookEntryDTO();
+        mappedEntries.put(source, destination);
+        destination.setId(source.getId());
+        destination.setLabel(source.getLabel());
+        destination.setBookDTO(book);
+        return destination;
+    }
+
+    static NodeDTO map(Node source) {
+        return map(source, new IdentityHashMap<Node, NodeDTO>());
+    }
+
+    private static NodeDTO map(Node source, Map<Node, NodeDTO> mappedNodes) {
+        NodeDTO destination = mappedNodes.get(source);
+        if (destination != null) return destination;
+        destination = new NodeDTO();
+        mappedNodes.put(source, destination);
+        destination.setId(source.getId());
+        destination.setNext(map(source.getNext(), mappedNodes));
+        List<NodeDTO> neighbours = new ArrayList<NodeDTO>(source.getNeighbours().size());
+        for (Node neighbour : source.getNeighbours()) neighbours.add(map(neighbour, mappedNodes));
+        destination.setNeighbours(neighbours);
+        return destination;
+    }
+
+    static List<OrderDTO> mapOrders(List<Order> source) {
+        List<OrderDTO> destination = new ArrayList<OrderDTO>(source.size());
+        for (Order order : source) {
+            OrderDTO orderDTO = new OrderDTO();
+            orderDTO.setId(order.getId());
+            orderDTO.setStatus(OrderDTO.StatusDTO.valueOf(order.getStatus().name()));
+            orderDTO.setPriority(OrderDTO.PriorityDTO.valueOf(order.getPriority().name()));
+            List<OrderDTO.StatusDTO> history = new ArrayList<OrderDTO.StatusDTO>(order.getHistory().size());
+            for (Order.Status status : order.getHistory()) history.add(OrderDTO.StatusDTO.valueOf(status.name()));
+            orderDTO.setHistory(history);
+            destination.add(orderDTO);
+        }
+        return destination;
+    }
+}
@@ -0,0 +1,65 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.benchmarks.model;
+
+import java.util.List;
+import java.util.Map;
+
+public class BookDTO {
+
+    private long id;
+
+    private String name;
+
+    private List<BookEntryDTO> entries;
+
+    private Map<Long, BookEntryDTO> entriesById;
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public List<BookEntryDTO> getEntries() {
+        return entries;
+    }
+
+    public void setEntries(List<BookEntryDTO> entries) {
+        this.entries = entries;
+    }
+
+    public Map<Long, BookEntryDTO> getEntriesById() {
+        return entriesById;
+    }
+
+    public void setEntriesById(Map<Long, BookEntryDTO> entriesById) {
+        this.entriesById = entriesById;
+    }
+}
@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.benchmarks.model;
+
+import java.util.List;
+
+public class OrderDTO {
+
+    private long id;
+
+    private StatusDTO status;
+
+    private PriorityDTO priority;
+
+    private List<StatusDTO> history;
+
+    public enum StatusDTO {
+        CREATED, PAID, SHIPPED, DELIVERED, CANCELLED
+    }
+
+    public enum PriorityDTO {
+        LOW, NORMAL, HIGH
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public StatusDTO getStatus() {
+        return status;
+    }
+
+    public void setStatus(StatusDTO status) {
+        this.status = status;
+    }
+
+    public PriorityDTO getPriority() {
+        return priority;
+    }
+
+    public void setPriority(PriorityDTO priority) {
+        this.priority = priority;
+    }
+
+    public List<StatusDTO> getHistory() {
+        return history;
+    }
+
+    public void setHistory(List<StatusDTO> history) {
+        this.history = history;
+    }
+}
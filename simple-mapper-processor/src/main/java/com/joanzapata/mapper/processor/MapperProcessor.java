@@ -0,0 +1,193 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.processor;
+
+import com.joanzapata.mapper.GenerateMapping;
+import com.joanzapata.mapper.GenerateMappings;
+import com.joanzapata.mapper.GeneratedMapper;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.AnnotationValue;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.JavaFileObject;
+import javax.tools.StandardLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Generates a {@link GeneratedMapper} for each pair declared with {@link GenerateMapping},
+ * and registers them in META-INF/services so that the Mapper picks them up at runtime.
+ * Pairs the processor can't map exactly like the Mapper would are reported as warnings
+ * and left to the reflective mapping.
+ */
+public final class MapperProcessor extends AbstractProcessor {
+
+    static final String SERVICE_FILE = "META-INF/services/" + GeneratedMapper.class.getName();
+
+    /** Classes generated during this compilation */
+    private final Set<String> generatedMappers = new TreeSet<String>();
+
+    /** Pairs already processed, as "source->destination" */
+    private final Set<String> processedPairs = new HashSet<String>();
+
+    @Override
+    public Set<String> getSupportedAnnotationTypes() {
+        return new HashSet<String>(Arrays.asList(
+                GenerateMapping.class.getCanonicalName(),
+                GenerateMappings.class.getCanonicalName()));
+    }
+
+    @Override
+    public SourceVersion getSupportedSourceVersion() {
+        return SourceVersion.latestSupported();
+    }
+
+    @Override
+    public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+        if (roundEnv.processingOver()) {
+            writeServiceFile();
+            return false;
+        }
+
+        Set<Element> annotatedElements = new HashSet<Element>();
+        annotatedElements.addAll(roundEnv.getElementsAnnotatedWith(GenerateMapping.class));
+        annotatedElements.addAll(roundEnv.getElementsAnnotatedWith(GenerateMappings.class));
+        for (Element element : annotatedElements) {
+            for (AnnotationMirror annotation : findMappingAnnotations(element)) {
+                TypeElement source = (TypeElement) ((DeclaredType) value(annotation, "source")).asElement();
+                TypeElement destination = (TypeElement) ((DeclaredType) value(annotation, "destination")).asElement();
+                if (processedPairs.add(source.getQualifiedName() + "->" + destination.getQualifiedName())) {
+                    generate(element, source, destination);
+                }
+            }
+        }
+        return true;
+    }
+
+    private void generate(Element origin, TypeElement source, TypeElement destination) {
+        MapperSource mapperSource = new MapperSource(processingEnv, source, destination);
+        String error = mapperSource.resolve();
+        if (error != null) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING,
+                    "No mapper generated for " + source.getQualifiedName() + " -> "
+                            + destination.getQualifiedName() + ", it will be mapped by reflection: " + error,
+                    origin);
+            return;
+        }
+
+        try {
+            JavaFileObject file = processingEnv.getFiler().createSourceFile(mapperSource.getQualifiedName(), origin);
+            Writer writer = file.openWriter();
+            try {
+                mapperSource.write(writer);
+            } finally {
+                writer.close();
+            }
+            generatedMappers.add(mapperSource.getBinaryName());
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + mapperSource.getQualifiedName() + ": " + e.getMessage(), origin);
+        }
+    }
+
+    /** @return The GenerateMapping annotations of the element, unwrapping the GenerateMappings container. */
+    private List<AnnotationMirror> findMappingAnnotations(Element element) {
+        List<AnnotationMirror> result = new ArrayList<AnnotationMirror>();
+        for (AnnotationMirror annotation : element.getAnnotationMirrors()) {
+            String name = ((TypeElement) annotation.getAnnotationType().asElement()).getQualifiedName().toString();
+            if (name.equals(GenerateMapping.class.getCanonicalName())) {
+                result.add(annotation);
+            } else if (name.equals(GenerateMappings.class.getCanonicalName())) {
+                @SuppressWarnings("unchecked")
+                List<? extends AnnotationValue> values = (List<? extends AnnotationValue>) value(annotation, "value");
+                for (AnnotationValue value : values) {
+                    result.add((AnnotationMirror) value.getValue());
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Object value(AnnotationMirror annotation, String name) {
+        for (Map.Entry<? extends ExecutableElement, ? extends AnnotationValue> entry : annotation.getElementValues().entrySet()) {
+            if (entry.getKey().getSimpleName().contentEquals(name)) {
+                return entry.getValue().getValue();
+            }
+        }
+        throw new IllegalStateException("Missing " + name + " in " + annotation);
+    }
+
+    /** Write the service file, keeping the mappers generated by a previous incremental compilation. */
+    private void writeServiceFile() {
+        if (generatedMappers.isEmpty()) return;
+        Set<String> allMappers = new TreeSet<String>(generatedMappers);
+        try {
+            FileObject existing = processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            BufferedReader reader = new BufferedReader(new InputStreamReader(existing.openInputStream(), "UTF-8"));
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    // Mappers of the previous builds are kept, unless their class doesn't exist anymore
+                    String mapper = line.trim();
+                    if (!mapper.isEmpty() && processingEnv.getElementUtils().getTypeElement(mapper) != null) {
+                        allMappers.add(mapper);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException e) {
+            // No previous service file
+        }
+
+        try {
+            FileObject file = processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", SERVICE_FILE);
+            Writer writer = new OutputStreamWriter(file.openOutputStream(), "UTF-8");
+            try {
+                for (String mapper : allMappers) {
+                    writer.write(mapper);
+                    writer.write('\n');
+                }
+            } finally {
+                writer.close();
+            }
+        } catch (IOException e) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                    "Unable to write " + SERVICE_FILE + ": " + e.getMessage());
+        }
+    }
+}
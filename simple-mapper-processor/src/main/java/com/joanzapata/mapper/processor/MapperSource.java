@@ -0,0 +1,354 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.processor;
+
+import javax.annotation.processing.ProcessingEnvironment;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.lang.model.util.Types;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Resolves the getter/setter pairs of a (source, destination) pair exactly like
+ * the reflective Mapper does, and writes the corresponding GeneratedMapper source.
+ */
+final class MapperSource {
+
+    /** Same name variations as the Mapper, see MapperUtil.removeSuffix() */
+    static final List<String> KNOWN_SUFFIXES = asList("DTO", "BO");
+
+    private final ProcessingEnvironment processingEnv;
+
+    private final TypeElement source;
+
+    private final TypeElement destination;
+
+    private final List<Property> properties = new ArrayList<Property>();
+
+    MapperSource(ProcessingEnvironment processingEnv, TypeElement source, TypeElement destination) {
+        this.processingEnv = processingEnv;
+        this.source = source;
+        this.destination = destination;
+    }
+
+    /**
+     * Find all the getter/setter pairs.
+     * @return null if the mapper can be generated, the reason why it can't otherwise.
+     */
+    String resolve() {
+        String error = checkAccessible(source);
+        if (error == null) error = checkAccessible(destination);
+        if (error != null) return error;
+
+        List<ExecutableElement> getters = new ArrayList<ExecutableElement>();
+        for (ExecutableElement method : publicMethods(source)) {
+            if (method.getParameters().isEmpty()) getters.add(method);
+        }
+
+        for (ExecutableElement setter : publicMethods(destination)) {
+            String setterName = setter.getSimpleName().toString();
+            if (!setterName.startsWith("set")) continue;
+            if (setter.getModifiers().contains(Modifier.STATIC))
+                return "static method " + setterName + "() is seen as a setter";
+            if (setter.getParameters().size() != 1 || setterName.length() <= 3)
+                return setterName + "() is not a valid setter";
+
+            ExecutableElement getter = null;
+            String expectedGetterName = removeSuffix("get" + setterName.substring(3));
+            String expectedGetterNameForBooleans = "is" + setterName.substring(3);
+            if (!removeSuffix(expectedGetterName).equals(expectedGetterName))
+                return "ambiguous name variations for " + setterName + "()";
+            for (ExecutableElement candidate : getters) {
+                String methodName = removeSuffix(candidate.getSimpleName().toString());
+                if (expectedGetterName.equals(methodName) || expectedGetterNameForBooleans.equals(methodName)) {
+                    if (getter != null)
+                        return "several getters match " + setterName + "()";
+                    getter = candidate;
+                }
+            }
+            if (getter == null)
+                return "no getter found for " + setterName + "()";
+            if (getter.getModifiers().contains(Modifier.STATIC))
+                return "getter " + getter.getSimpleName() + "() is static";
+
+            Property property = Property.create(processingEnv.getTypeUtils(), getter, setter);
+            if (property == null)
+                return "unsupported parameter type for " + setterName + "()";
+            properties.add(property);
+        }
+        return null;
+    }
+
+    String getQualifiedName() {
+        String packageName = getPackageName();
+        return packageName.isEmpty() ? getSimpleName() : packageName + "." + getSimpleName();
+    }
+
+    /** Generated mappers are top level classes, so the binary name is the qualified name. */
+    String getBinaryName() {
+        return getQualifiedName();
+    }
+
+    void write(Writer writer) throws IOException {
+        String sourceName = source.getQualifiedName().toString();
+        String destinationName = destination.getQualifiedName().toString();
+        String packageName = getPackageName();
+
+        StringBuilder out = new StringBuilder();
+        if (!packageName.isEmpty()) out.append("package ").append(packageName).append(";\n\n");
+        out.append("/** Generated by simple-mapper-processor, do not modify. */\n");
+        out.append("public final class ").append(getSimpleName())
+                .append(" implements com.joanzapata.mapper.GeneratedMapper<")
+                .append(sourceName).append(", ").append(destinationName).append("> {\n\n");
+
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            if (property.typeArguments.isEmpty()) continue;
+            out.append("    private static final Class<?>[] TYPE_ARGUMENTS_").append(i).append(" = {");
+            for (int j = 0; j < property.typeArguments.size(); j++) {
+                if (j > 0) out.append(", ");
+                out.append(property.typeArguments.get(j)).append(".class");
+            }
+            out.append("};\n\n");
+        }
+
+        out.append("    @Override\n");
+        out.append("    public Class<").append(sourceName).append("> getSourceClass() {\n");
+        out.append("        return ").append(sourceName).append(".class;\n");
+        out.append("    }\n\n");
+        out.append("    @Override\n");
+        out.append("    public Class<").append(destinationName).append("> getDestinationClass() {\n");
+        out.append("        return ").append(destinationName).append(".class;\n");
+        out.append("    }\n\n");
+        out.append("    @Override\n");
+        out.append("    @SuppressWarnings({\"unchecked\", \"rawtypes\"})\n");
+        out.append("    public void map(").append(sourceName).append(" source, ").append(destinationName)
+                .append(" destination, Callback callback) {\n");
+        // Direct copies go through the Mapper when a custom mapper handles their pair,
+        // checked once per pair and mapping like the reflective plans do
+        Map<String, String> customMapperFlags = new LinkedHashMap<String, String>();
+        for (Property property : properties) {
+            if (!property.direct) continue;
+            String pair = property.getterType + ".class, " + property.setterType + ".class";
+            if (customMapperFlags.containsKey(pair)) continue;
+            String flag = "customMapper" + customMapperFlags.size();
+            customMapperFlags.put(pair, flag);
+            out.append("        boolean ").append(flag).append(" = callback.hasCustomMapper(")
+                    .append(pair).append(");\n");
+        }
+        for (int i = 0; i < properties.size(); i++) {
+            Property property = properties.get(i);
+            String flag = property.direct
+                    ? customMapperFlags.get(property.getterType + ".class, " + property.setterType + ".class")
+                    : null;
+            property.write(out, i, flag);
+        }
+        out.append("    }\n");
+        out.append("}\n");
+        writer.write(out.toString());
+    }
+
+    private String getPackageName() {
+        return processingEnv.getElementUtils().getPackageOf(destination).getQualifiedName().toString();
+    }
+
+    /** Source and destination names, flattened for nested classes. */
+    private String getSimpleName() {
+        return flatName(source) + "To" + flatName(destination) + "Mapper";
+    }
+
+    private static String flatName(TypeElement type) {
+        String name = type.getSimpleName().toString();
+        Element enclosing = type.getEnclosingElement();
+        while (enclosing instanceof TypeElement) {
+            name = enclosing.getSimpleName() + "_" + name;
+            enclosing = enclosing.getEnclosingElement();
+        }
+        return name;
+    }
+
+    private static String checkAccessible(TypeElement type) {
+        if (!type.getTypeParameters().isEmpty())
+            return type.getQualifiedName() + " is generic";
+        Element current = type;
+        while (!(current instanceof PackageElement)) {
+            if (!current.getModifiers().contains(Modifier.PUBLIC))
+                return current.getSimpleName() + " is not public";
+            if (current instanceof TypeElement && ((TypeElement) current).getNestingKind() == NestingKind.MEMBER
+                    && !current.getModifiers().contains(Modifier.STATIC))
+                return current.getSimpleName() + " is an inner class";
+            current = current.getEnclosingElement();
+        }
+        return null;
+    }
+
+    /** Same as Class.getMethods() */
+    private List<ExecutableElement> publicMethods(TypeElement type) {
+        List<ExecutableElement> methods = new ArrayList<ExecutableElement>();
+        for (ExecutableElement method : ElementFilter.methodsIn(processingEnv.getElementUtils().getAllMembers(type))) {
+            if (method.getModifiers().contains(Modifier.PUBLIC)) methods.add(method);
+        }
+        return methods;
+    }
+
+    static String removeSuffix(String name) {
+        for (String suffix : KNOWN_SUFFIXES) {
+            if (name.endsWith(suffix)) {
+                return name.substring(0, name.length() - suffix.length());
+            }
+        }
+        return name;
+    }
+
+    /** A resolved getter/setter pair. */
+    private static final class Property {
+
+        private final String getterName;
+
+        private final String setterName;
+
+        /** True if the getter value can be given to the setter as is */
+        private final boolean direct;
+
+        /** Erasure of the getter return type */
+        private final String getterType;
+
+        /** Erasure of the setter parameter type */
+        private final String setterType;
+
+        /** Type used to cast the mapped value before giving it to the setter */
+        private final String castType;
+
+        /** Class names of the setter parameter type arguments, if parameterized */
+        private final List<String> typeArguments;
+
+        /** Erasure of the getter return type if the value can't be assigned to the setter, null otherwise */
+        private final String valueType;
+
+        private Property(String getterName, String setterName, boolean direct, String getterType,
+                         String setterType, String castType, List<String> typeArguments, String valueType) {
+            this.getterName = getterName;
+            this.setterName = setterName;
+            this.direct = direct;
+            this.getterType = getterType;
+            this.setterType = setterType;
+            this.castType = castType;
+            this.typeArguments = typeArguments;
+            this.valueType = valueType;
+        }
+
+        /** @return The property, or null if the setter type can't be written as a class literal. */
+        static Property create(Types types, ExecutableElement getter, ExecutableElement setter) {
+            TypeMirror getterType = getter.getReturnType();
+            TypeMirror setterType = setter.getParameters().get(0).asType();
+            String getterErasure = types.erasure(getterType).toString();
+            String getterName = getter.getSimpleName().toString();
+            String setterName = setter.getSimpleName().toString();
+            List<String> typeArguments = new ArrayList<String>();
+
+            if (setterType.getKind().isPrimitive()) {
+                // Identity and widening conversions are copied without going through the Mapper unless
+                // a custom mapper handles them, like the primitive copiers of the reflective plans
+                boolean direct = getterType.getKind().isPrimitive() && types.isAssignable(getterType, setterType);
+                String boxed = types.boxedClass((PrimitiveType) setterType).getQualifiedName().toString();
+                return new Property(getterName, setterName, direct, getterErasure, setterType.toString(), boxed,
+                        typeArguments, valueType(types, getterType, setterType));
+            }
+
+            if (setterType.getKind() == TypeKind.ARRAY) {
+                String erasure = types.erasure(setterType).toString();
+                return new Property(getterName, setterName, false, getterErasure, erasure, erasure, typeArguments,
+                        valueType(types, getterType, setterType));
+            }
+
+            if (setterType.getKind() != TypeKind.DECLARED) return null;
+            for (TypeMirror typeArgument : ((DeclaredType) setterType).getTypeArguments()) {
+                // The Mapper only handles classes as type arguments
+                if (typeArgument.getKind() != TypeKind.DECLARED
+                        || !((DeclaredType) typeArgument).getTypeArguments().isEmpty()) return null;
+                typeArguments.add(types.erasure(typeArgument).toString());
+            }
+            String erasure = types.erasure(setterType).toString();
+            return new Property(getterName, setterName, false, getterErasure, erasure, erasure, typeArguments,
+                    typeArguments.isEmpty() ? valueType(types, getterType, setterType) : null);
+        }
+
+        /**
+         * @return The erasure of the getter type if its boxed values can't be given to the setter,
+         * they go through the converters of the Mapper then, null otherwise.
+         */
+        private static String valueType(Types types, TypeMirror getterType, TypeMirror setterType) {
+            if (types.isAssignable(types.erasure(boxed(types, getterType)), types.erasure(boxed(types, setterType)))) {
+                return null;
+            }
+            return types.erasure(getterType).toString();
+        }
+
+        private static TypeMirror boxed(Types types, TypeMirror type) {
+            return type.getKind().isPrimitive() ? types.boxedClass((PrimitiveType) type).asType() : type;
+        }
+
+        /** @param customMapperFlag For direct properties, the local telling if a custom mapper handles the pair */
+        void write(StringBuilder out, int index, String customMapperFlag) {
+            out.append("        try {\n");
+            if (direct) {
+                out.append("            if (").append(customMapperFlag).append(") {\n");
+                out.append("                destination.").append(setterName).append("((").append(castType)
+                        .append(") callback.convert(source.").append(getterName).append("(), ")
+                        .append(getterType).append(".class, ").append(setterType).append(".class));\n");
+                out.append("            } else {\n");
+                out.append("                destination.").append(setterName)
+                        .append("(source.").append(getterName).append("());\n");
+                out.append("            }\n");
+            } else {
+                out.append("            Object value = source.").append(getterName).append("();\n");
+                out.append("            if (value != null) {\n");
+                out.append("                destination.").append(setterName).append("((").append(castType);
+                if (valueType != null) {
+                    out.append(") callback.convert(value, ").append(valueType).append(".class, ")
+                            .append(setterType).append(".class");
+                } else {
+                    out.append(") callback.map(value, ").append(setterType).append(".class");
+                    if (!typeArguments.isEmpty()) out.append(", TYPE_ARGUMENTS_").append(index);
+                }
+                out.append("));\n");
+                out.append("            }\n");
+            }
+            out.append("        } catch (Exception e) {\n");
+            out.append("            callback.failed(\"").append(setterName).append("\", e);\n");
+            out.append("        }\n");
+        }
+    }
+}
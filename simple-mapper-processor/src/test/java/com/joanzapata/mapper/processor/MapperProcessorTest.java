@@ -0,0 +1,309 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.processor;
+
+import com.joanzapata.mapper.CustomMapper;
+import com.joanzapata.mapper.Mapper;
+import com.joanzapata.mapper.MappingContext;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URI;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class MapperProcessorTest {
+
+    private File outputDirectory;
+
+    private DiagnosticCollector<JavaFileObject> diagnostics;
+
+    @Before
+    public void setUp() throws Exception {
+        outputDirectory = Files.createTempDirectory("simple-mapper-processor").toFile();
+        diagnostics = new DiagnosticCollector<JavaFileObject>();
+    }
+
+    @Test
+    public void generatesMapperAndServiceFile() throws Exception {
+        assertTrue(compile(BOOK, BOOK_DTO, BOOK_ENTRY, BOOK_ENTRY_DTO, CONFIG));
+
+        File generated = new File(outputDirectory, "test/BookToBookDTOMapper.class");
+        assertTrue("Missing " + generated, generated.exists());
+        String services = new String(Files.readAllBytes(
+                new File(outputDirectory, MapperProcessor.SERVICE_FILE).toPath()), "UTF-8");
+        assertTrue(services.contains("test.BookToBookDTOMapper"));
+        assertTrue(services.contains("test.BookEntryToBookEntryDTOMapper"));
+    }
+
+    @Test
+    public void serviceFileDropsRemovedMappers() throws Exception {
+        assertTrue(compile(BOOK, BOOK_DTO, BOOK_ENTRY, BOOK_ENTRY_DTO, CONFIG));
+        assertTrue(new File(outputDirectory, "test/BookToBookDTOMapper.class").delete());
+        assertTrue(new File(outputDirectory, "test/BookToBookDTOMapper.java").delete());
+
+        // Incremental compilation, the previous classes are on the classpath
+        assertTrue(compile(Arrays.asList("-classpath", outputDirectory.getAbsolutePath()
+                        + File.pathSeparator + System.getProperty("java.class.path")),
+                BOOK, BOOK_DTO, BOOK_ENTRY, BOOK_ENTRY_DTO, source("test.Config",
+                        "package test;\n"
+                                + "@com.joanzapata.mapper.GenerateMapping(source = BookEntry.class, destination = BookEntryDTO.class)\n"
+                                + "public class Config {}\n")));
+
+        String services = new String(Files.readAllBytes(
+                new File(outputDirectory, MapperProcessor.SERVICE_FILE).toPath()), "UTF-8");
+        assertFalse(services.contains("test.BookToBookDTOMapper"));
+        assertTrue(services.contains("test.BookEntryToBookEntryDTOMapper"));
+    }
+
+    @Test
+    public void mapperUsesGeneratedMapper() throws Exception {
+        assertTrue(compile(BOOK, BOOK_DTO, BOOK_ENTRY, BOOK_ENTRY_DTO, CONFIG));
+
+        ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{outputDirectory.toURI().toURL()},
+                getClass().getClassLoader());
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try {
+            Class<?> bookClass = classLoader.loadClass("test.Book");
+            Class<?> bookDTOClass = classLoader.loadClass("test.BookDTO");
+            Object book = bookClass.getMethod("create").invoke(null);
+
+            Object bookDTO = new Mapper().strictMode().map(book, bookDTOClass);
+
+            assertEquals(42L, bookDTOClass.getMethod("getId").invoke(bookDTO));
+            assertEquals("Book", bookDTOClass.getMethod("getName").invoke(bookDTO));
+            List<?> entries = (List<?>) bookDTOClass.getMethod("getEntries").invoke(bookDTO);
+            assertEquals(2, entries.size());
+            Method getBookDTO = entries.get(0).getClass().getMethod("getBookDTO");
+            assertSame(bookDTO, getBookDTO.invoke(entries.get(0)));
+        } finally {
+            Thread.currentThread().setContextClassLoader(previous);
+            classLoader.close();
+        }
+    }
+
+    @Test
+    public void primitivesAreWidenedAndOtherTypesConverted() throws Exception {
+        assertTrue(compile(COUNTER, COUNTER_DTO, source("test.Config",
+                "package test;\n"
+                        + "@com.joanzapata.mapper.GenerateMapping(source = Counter.class, destination = CounterDTO.class)\n"
+                        + "public class Config {}\n")));
+
+        String generated = new String(Files.readAllBytes(
+                new File(outputDirectory, "test/CounterToCounterDTOMapper.java").toPath()), "UTF-8");
+        assertTrue(generated.contains("destination.setCount(source.getCount());"));
+        assertTrue(generated.contains("destination.setRatio(source.getRatio());"));
+        assertTrue(generated.contains("callback.convert(value, long.class, java.lang.String.class)"));
+
+        Object counterDTO = mapGenerated("test.Counter", "test.CounterDTO");
+        assertEquals(7L, counterDTO.getClass().getMethod("getCount").invoke(counterDTO));
+        assertEquals(0.5, counterDTO.getClass().getMethod("getRatio").invoke(counterDTO));
+        assertEquals("12", counterDTO.getClass().getMethod("getTotal").invoke(counterDTO));
+    }
+
+    @Test
+    public void customMappersApplyToPrimitives() throws Exception {
+        assertTrue(compile(COUNTER, COUNTER_DTO, source("test.Config",
+                "package test;\n"
+                        + "@com.joanzapata.mapper.GenerateMapping(source = Counter.class, destination = CounterDTO.class)\n"
+                        + "public class Config {}\n")));
+
+        Object counterDTO = mapGenerated("test.Counter", "test.CounterDTO", new CustomMapper<Integer, Long>() {
+            @Override
+            public Long map(Integer source, MappingContext mappingContext) {
+                return source * 100L;
+            }
+        });
+        assertEquals(700L, counterDTO.getClass().getMethod("getCount").invoke(counterDTO));
+        assertEquals(0.5, counterDTO.getClass().getMethod("getRatio").invoke(counterDTO));
+    }
+
+    @Test
+    public void warnsWhenGetterIsMissing() throws Exception {
+        assertTrue(compile(BOOK, BOOK_DTO, BOOK_ENTRY, BOOK_ENTRY_DTO, source("test.Config",
+                "package test;\n"
+                        + "@com.joanzapata.mapper.GenerateMapping(source = BookEntry.class, destination = BookDTO.class)\n"
+                        + "public class Config {}\n")));
+
+        assertFalse(new File(outputDirectory, "test/BookEntryToBookDTOMapper.class").exists());
+        boolean warned = false;
+        for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+            if (diagnostic.getKind() == Diagnostic.Kind.WARNING
+                    && diagnostic.getMessage(null).contains("no getter found for set"))
+                warned = true;
+        }
+        assertTrue(warned);
+    }
+
+    @Test
+    public void removeSuffixMatchesMapper() {
+        assertEquals("getTest", MapperSource.removeSuffix("getTestDTO"));
+        assertEquals("getTest", MapperSource.removeSuffix("getTestBO"));
+        assertEquals("getTestdto", MapperSource.removeSuffix("getTestdto"));
+    }
+
+    /** Map the object returned by the create() method of the source class, with the generated mappers. */
+    private Object mapGenerated(String sourceClass, String destinationClass) throws Exception {
+        return mapGenerated(sourceClass, destinationClass, null);
+    }
+
+    /** Same as {@link #mapGenerated(String, String)}, with a custom mapper if not null. */
+    private Object mapGenerated(String sourceClass, String destinationClass,
+                                CustomMapper<?, ?> customMapper) throws Exception {
+        ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{outputDirectory.toURI().toURL()},
+                getClass().getClassLoader());
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try {
+            Object source = classLoader.loadClass(sourceClass).getMethod("create").invoke(null);
+            Mapper mapper = new Mapper().strictMode();
+            if (customMapper != null) mapper.customMapper(customMapper);
+            return mapper.map(source, classLoader.loadClass(destinationClass));
+        } finally {
+            Thread.currentThread().setContextClassLoader(previous);
+            classLoader.close();
+        }
+    }
+
+    private boolean compile(JavaFileObject... sources) throws Exception {
+        return compile(Arrays.asList("-classpath", System.getProperty("java.class.path")), sources);
+    }
+
+    private boolean compile(List<String> classpathOption, JavaFileObject... sources) throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        StandardJavaFileManager fileManager = compiler.getStandardFileManager(diagnostics, null, null);
+        try {
+            List<String> options = new ArrayList<String>(Arrays.asList("-d", outputDirectory.getAbsolutePath()));
+            options.addAll(classpathOption);
+            JavaCompiler.CompilationTask task = compiler.getTask(null, fileManager, diagnostics,
+                    options, null, Arrays.asList(sources));
+            task.setProcessors(Arrays.asList(new MapperProcessor()));
+            return task.call();
+        } finally {
+            fileManager.close();
+        }
+    }
+
+    private static JavaFileObject source(String className, final String content) {
+        return new SimpleJavaFileObject(URI.create("string:///" + className.replace('.', '/') + ".java"),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+    }
+
+    private static final JavaFileObject CONFIG = source("test.Config",
+            "package test;\n"
+                    + "import com.joanzapata.mapper.GenerateMapping;\n"
+                    + "@GenerateMapping(source = Book.class, destination = BookDTO.class)\n"
+                    + "@GenerateMapping(source = BookEntry.class, destination = BookEntryDTO.class)\n"
+                    + "public class Config {}\n");
+
+    private static final JavaFileObject BOOK = source("test.Book",
+            "package test;\n"
+                    + "import java.util.*;\n"
+                    + "public class Book {\n"
+                    + "    private long id; private String name; private List<BookEntry> entries;\n"
+                    + "    public long getId() { return id; }\n"
+                    + "    public void setId(long id) { this.id = id; }\n"
+                    + "    public String getName() { return name; }\n"
+                    + "    public void setName(String name) { this.name = name; }\n"
+                    + "    public List<BookEntry> getEntries() { return entries; }\n"
+                    + "    public void setEntries(List<BookEntry> entries) { this.entries = entries; }\n"
+                    + "    public static Book create() {\n"
+                    + "        Book book = new Book(); book.id = 42L; book.name = \"Book\";\n"
+                    + "        BookEntry e1 = new BookEntry(); e1.setBook(book);\n"
+                    + "        BookEntry e2 = new BookEntry(); e2.setBook(book);\n"
+                    + "        book.entries = Arrays.asList(e1, e2);\n"
+                    + "        return book;\n"
+                    + "    }\n"
+                    + "}\n");
+
+    private static final JavaFileObject BOOK_DTO = source("test.BookDTO",
+            "package test;\n"
+                    + "import java.util.*;\n"
+                    + "public class BookDTO {\n"
+                    + "    private Long id; private String name; private List<BookEntryDTO> entries;\n"
+                    + "    public Long getId() { return id; }\n"
+                    + "    public void setId(Long id) { this.id = id; }\n"
+                    + "    public String getName() { return name; }\n"
+                    + "    public void setName(String name) { this.name = name; }\n"
+                    + "    public List<BookEntryDTO> getEntries() { return entries; }\n"
+                    + "    public void setEntries(List<BookEntryDTO> entries) { this.entries = entries; }\n"
+                    + "}\n");
+
+    private static final JavaFileObject BOOK_ENTRY = source("test.BookEntry",
+            "package test;\n"
+                    + "public class BookEntry {\n"
+                    + "    private Book book;\n"
+                    + "    public Book getBook() { return book; }\n"
+                    + "    public void setBook(Book book) { this.book = book; }\n"
+                    + "}\n");
+
+    private static final JavaFileObject BOOK_ENTRY_DTO = source("test.BookEntryDTO",
+            "package test;\n"
+                    + "public class BookEntryDTO {\n"
+                    + "    private BookDTO bookDTO;\n"
+                    + "    public BookDTO getBookDTO() { return bookDTO; }\n"
+                    + "    public void setBookDTO(BookDTO bookDTO) { this.bookDTO = bookDTO; }\n"
+                    + "}\n");
+
+    private static final JavaFileObject COUNTER = source("test.Counter",
+            "package test;\n"
+                    + "public class Counter {\n"
+                    + "    private int count; private float ratio; private long total;\n"
+                    + "    public int getCount() { return count; }\n"
+                    + "    public float getRatio() { return ratio; }\n"
+                    + "    public long getTotal() { return total; }\n"
+                    + "    public static Counter create() {\n"
+                    + "        Counter counter = new Counter(); counter.count = 7; counter.ratio = 0.5f; counter.total = 12L;\n"
+                    + "        return counter;\n"
+                    + "    }\n"
+                    + "}\n");
+
+    private static final JavaFileObject COUNTER_DTO = source("test.CounterDTO",
+            "package test;\n"
+                    + "public class CounterDTO {\n"
+                    + "    private long count; private double ratio; private String total;\n"
+                    + "    public long getCount() { return count; }\n"
+                    + "    public void setCount(long count) { this.count = count; }\n"
+                    + "    public double getRatio() { return ratio; }\n"
+                    + "    public void setRatio(double ratio) { this.ratio = ratio; }\n"
+                    + "    public String getTotal() { return total; }\n"
+                    + "    public void setTotal(String total) { this.total = total; }\n"
+                    + "}\n");
+}
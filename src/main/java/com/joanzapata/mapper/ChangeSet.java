@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+/** Result of {@link Mapper#mapChanges(Object, Object)}: the destination properties which have changed. */
+public final class ChangeSet implements Iterable<ChangeSet.Change> {
+
+    private List<Change> changes = Collections.emptyList();
+
+    ChangeSet() {
+    }
+
+    void add(String path, Object oldValue, Object newValue) {
+        if (changes.isEmpty()) changes = new ArrayList<Change>();
+        changes.add(new Change(path, oldValue, newValue));
+    }
+
+    /** @return True if the destination hasn't been modified. */
+    public boolean isEmpty() {
+        return changes.isEmpty();
+    }
+
+    public int size() {
+        return changes.size();
+    }
+
+    /** @return The changes, in the order they were made. */
+    public List<Change> getChanges() {
+        return Collections.unmodifiableList(changes);
+    }
+
+    @Override
+    public Iterator<Change> iterator() {
+        return getChanges().iterator();
+    }
+
+    @Override
+    public String toString() {
+        return changes.toString();
+    }
+
+    /** A destination property which has been written. */
+    public static final class Change {
+
+        private final String path;
+
+        private final Object oldValue;
+
+        private final Object newValue;
+
+        Change(String path, Object oldValue, Object newValue) {
+            this.path = path;
+            this.oldValue = oldValue;
+            this.newValue = newValue;
+        }
+
+        /** @return The path of the property from the destination, like "entries[0].phoneNumber". */
+        public String getPath() {
+            return path;
+        }
+
+        /** @return The value before the change, null if the destination has no getter for it. */
+        public Object getOldValue() {
+            return oldValue;
+        }
+
+        /** @return The mapped value written in the destination. */
+        public Object getNewValue() {
+            return newValue;
+        }
+
+        @Override
+        public String toString() {
+            return path + ": " + oldValue + " -> " + newValue;
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/** The collection factories of a mapper, the default one coming last. */
+final class CollectionFactories {
+
+    private static final CollectionFactory DEFAULT = new DefaultCollectionFactory();
+
+    private final List<CollectionFactory> factories;
+
+    CollectionFactories() {
+        factories = new ArrayList<CollectionFactory>();
+    }
+
+    /** Creates a read-only copy of the given factories. */
+    CollectionFactories(CollectionFactories other) {
+        factories = Collections.unmodifiableList(new ArrayList<CollectionFactory>(other.factories));
+    }
+
+    void add(CollectionFactory factory) {
+        factories.add(factory);
+    }
+
+    /** @return The collection created by the first factory handling the type, or null if none does. */
+    @SuppressWarnings("unchecked")
+    Collection<Object> newCollection(Object source, Class<?> destinationType, Class<?> elementType, int size) {
+        for (CollectionFactory factory : factories) {
+            Collection<?> collection = factory.newCollection(source, destinationType, elementType, size);
+            if (collection != null) return (Collection<Object>) collection;
+        }
+        return (Collection<Object>) DEFAULT.newCollection(source, destinationType, elementType, size);
+    }
+
+    /** @return The map created by the first factory handling the type, or null if none does. */
+    @SuppressWarnings("unchecked")
+    Map<Object, Object> newMap(Map<?, ?> source, Class<?> destinationType, Class<?> keyType, int size) {
+        for (CollectionFactory factory : factories) {
+            Map<?, ?> map = factory.newMap(source, destinationType, keyType, size);
+            if (map != null) return (Map<Object, Object>) map;
+        }
+        return (Map<Object, Object>) DEFAULT.newMap(source, destinationType, keyType, size);
+    }
+}
@@ -0,0 +1,53 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * Define a CollectionFactory when you want the mapper
+ * to create other implementations of the destination
+ * collections and maps, for example primitive-specialized
+ * ones. Return null for the types you don't handle, the
+ * default factory will create them.
+ */
+public interface CollectionFactory {
+
+    /**
+     * Create the collection to fill with the mapped elements.
+     * @param source          The source collection or array.
+     * @param destinationType The declared type of the destination, Collection.class if unknown.
+     * @param elementType     The class of the destination elements, null if unknown.
+     * @param size            The number of source elements.
+     * @return An empty collection, instance of destinationType, or null.
+     */
+    Collection<?> newCollection(Object source, Class<?> destinationType, Class<?> elementType, int size);
+
+    /**
+     * Create the map to fill with the mapped entries.
+     * @param source          The source map.
+     * @param destinationType The declared type of the destination, Map.class if unknown.
+     * @param keyType         The class of the destination keys, null if unknown.
+     * @param size            The number of source entries.
+     * @return An empty map, instance of destinationType, or null.
+     */
+    Map<?, ?> newMap(Map<?, ?> source, Class<?> destinationType, Class<?> keyType, int size);
+
+}
@@ -0,0 +1,39 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+/**
+ * Define a Converter to map values of a type to another
+ * one when the getter type doesn't match the setter type,
+ * for example a String to a UUID. Converters are bound to
+ * the properties when the mapping plan is built, so unlike
+ * custom mappers they cost nothing to the other properties.
+ * @param <S> Source type
+ * @param <D> Destination type
+ */
+public interface Converter<S, D> {
+
+    /**
+     * Convert the given value.
+     * @param source The value to convert, never null.
+     * @return The converted value.
+     */
+    D convert(S source);
+
+}
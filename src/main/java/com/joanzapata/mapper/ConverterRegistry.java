@@ -0,0 +1,239 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Converters by (source type, destination type), primitive types being boxed.
+ * The built-in ones convert numbers (narrowing only if the value is kept exactly),
+ * strings from and to numbers, booleans, UUIDs, enums and java.time types, and
+ * dates from and to java.time types, using the system time zone.
+ */
+final class ConverterRegistry {
+
+    private static final Converter<Enum<?>, String> ENUM_TO_STRING = new Converter<Enum<?>, String>() {
+        @Override
+        public String convert(Enum<?> source) {
+            return source.name();
+        }
+    };
+
+    private static final Converter<Object, String> TO_STRING = new Converter<Object, String>() {
+        @Override
+        public String convert(Object source) {
+            return source.toString();
+        }
+    };
+
+    /** Declared after the converters it uses */
+    private static final Map<MappingPlan.Key, Converter<?, ?>> BUILT_IN = builtIn();
+
+    private final Map<MappingPlan.Key, Converter<?, ?>> converters;
+
+    /** String -> enum converters, created when first needed */
+    private final ConcurrentMap<Class<?>, Converter<?, ?>> enumConverters =
+            new ConcurrentHashMap<Class<?>, Converter<?, ?>>();
+
+    ConverterRegistry() {
+        converters = new HashMap<MappingPlan.Key, Converter<?, ?>>(BUILT_IN);
+    }
+
+    /** Creates a read-only copy of the given converters. */
+    ConverterRegistry(ConverterRegistry other) {
+        converters = Collections.unmodifiableMap(new HashMap<MappingPlan.Key, Converter<?, ?>>(other.converters));
+    }
+
+    <S, D> void add(Class<S> sourceClass, Class<D> destinationClass, Converter<S, D> converter) {
+        converters.put(new MappingPlan.Key(PropertyAccessors.boxed(sourceClass),
+                PropertyAccessors.boxed(destinationClass)), converter);
+    }
+
+    /** @return The converter for exactly this pair of types, or null if none. */
+    @SuppressWarnings("unchecked")
+    Converter<Object, Object> find(Class<?> sourceClass, Class<?> destinationClass) {
+        Class<?> source = PropertyAccessors.boxed(sourceClass);
+        Class<?> destination = PropertyAccessors.boxed(destinationClass);
+        Converter<?, ?> converter = converters.get(new MappingPlan.Key(source, destination));
+        if (converter == null && source.isEnum() && destination == String.class) {
+            converter = ENUM_TO_STRING;
+        } else if (converter == null && source == String.class && destination.isEnum()) {
+            converter = enumConverters.get(destination);
+            if (converter == null) {
+                converter = new StringToEnum(destination);
+                enumConverters.putIfAbsent(destination, converter);
+            }
+        }
+        return (Converter<Object, Object>) converter;
+    }
+
+    private static Map<MappingPlan.Key, Converter<?, ?>> builtIn() {
+        Map<MappingPlan.Key, Converter<?, ?>> builtIn = new HashMap<MappingPlan.Key, Converter<?, ?>>();
+        for (Class<?> source : asList(Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class)) {
+            for (Class<?> destination : asList(Byte.class, Short.class, Integer.class, Long.class, Float.class, Double.class)) {
+                if (source != destination) builtIn.put(new MappingPlan.Key(source, destination), new NumberConverter(destination));
+            }
+            builtIn.put(new MappingPlan.Key(source, String.class), TO_STRING);
+            builtIn.put(new MappingPlan.Key(String.class, source), new StringToNumber(source));
+        }
+        for (Class<?> type : asList(Boolean.class, UUID.class, Instant.class, LocalDate.class, LocalDateTime.class)) {
+            builtIn.put(new MappingPlan.Key(type, String.class), TO_STRING);
+        }
+        builtIn.put(new MappingPlan.Key(String.class, Boolean.class), new Converter<String, Boolean>() {
+            @Override
+            public Boolean convert(String source) {
+                return Boolean.valueOf(source.trim());
+            }
+        });
+        builtIn.put(new MappingPlan.Key(String.class, UUID.class), new Converter<String, UUID>() {
+            @Override
+            public UUID convert(String source) {
+                return UUID.fromString(source.trim());
+            }
+        });
+        builtIn.put(new MappingPlan.Key(String.class, Instant.class), new Converter<String, Instant>() {
+            @Override
+            public Instant convert(String source) {
+                return Instant.parse(source.trim());
+            }
+        });
+        builtIn.put(new MappingPlan.Key(String.class, LocalDate.class), new Converter<String, LocalDate>() {
+            @Override
+            public LocalDate convert(String source) {
+                return LocalDate.parse(source.trim());
+            }
+        });
+        builtIn.put(new MappingPlan.Key(String.class, LocalDateTime.class), new Converter<String, LocalDateTime>() {
+            @Override
+            public LocalDateTime convert(String source) {
+                return LocalDateTime.parse(source.trim());
+            }
+        });
+        builtIn.put(new MappingPlan.Key(Date.class, Instant.class), new Converter<Date, Instant>() {
+            @Override
+            public Instant convert(Date source) {
+                return source.toInstant();
+            }
+        });
+        builtIn.put(new MappingPlan.Key(Instant.class, Date.class), new Converter<Instant, Date>() {
+            @Override
+            public Date convert(Instant source) {
+                return Date.from(source);
+            }
+        });
+        builtIn.put(new MappingPlan.Key(Date.class, LocalDateTime.class), new Converter<Date, LocalDateTime>() {
+            @Override
+            public LocalDateTime convert(Date source) {
+                return LocalDateTime.ofInstant(source.toInstant(), ZoneId.systemDefault());
+            }
+        });
+        builtIn.put(new MappingPlan.Key(LocalDateTime.class, Date.class), new Converter<LocalDateTime, Date>() {
+            @Override
+            public Date convert(LocalDateTime source) {
+                return Date.from(source.atZone(ZoneId.systemDefault()).toInstant());
+            }
+        });
+        builtIn.put(new MappingPlan.Key(Date.class, LocalDate.class), new Converter<Date, LocalDate>() {
+            @Override
+            public LocalDate convert(Date source) {
+                return source.toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+            }
+        });
+        builtIn.put(new MappingPlan.Key(LocalDate.class, Date.class), new Converter<LocalDate, Date>() {
+            @Override
+            public Date convert(LocalDate source) {
+                return Date.from(source.atStartOfDay(ZoneId.systemDefault()).toInstant());
+            }
+        });
+        return Collections.unmodifiableMap(builtIn);
+    }
+
+    /** Converts a number, throws an ArithmeticException if it can't be kept exactly by an integral type. */
+    private static final class NumberConverter implements Converter<Number, Number> {
+
+        private final Class<?> destinationClass;
+
+        NumberConverter(Class<?> destinationClass) {
+            this.destinationClass = destinationClass;
+        }
+
+        @Override
+        public Number convert(Number source) {
+            if (destinationClass == Double.class) return source.doubleValue();
+            if (destinationClass == Float.class) return source.floatValue();
+
+            long value = source.longValue();
+            if ((source instanceof Double || source instanceof Float) && value != source.doubleValue()) {
+                throw new ArithmeticException(source + " can't be converted to " + destinationClass.getSimpleName());
+            }
+            if (destinationClass == Long.class) return value;
+            if (destinationClass == Integer.class && value == (int) value) return (int) value;
+            if (destinationClass == Short.class && value == (short) value) return (short) value;
+            if (destinationClass == Byte.class && value == (byte) value) return (byte) value;
+            throw new ArithmeticException(source + " can't be converted to " + destinationClass.getSimpleName());
+        }
+    }
+
+    private static final class StringToNumber implements Converter<String, Number> {
+
+        private final Class<?> destinationClass;
+
+        StringToNumber(Class<?> destinationClass) {
+            this.destinationClass = destinationClass;
+        }
+
+        @Override
+        public Number convert(String source) {
+            String value = source.trim();
+            if (destinationClass == Byte.class) return Byte.valueOf(value);
+            if (destinationClass == Short.class) return Short.valueOf(value);
+            if (destinationClass == Integer.class) return Integer.valueOf(value);
+            if (destinationClass == Long.class) return Long.valueOf(value);
+            if (destinationClass == Float.class) return Float.valueOf(value);
+            return Double.valueOf(value);
+        }
+    }
+
+    private static final class StringToEnum implements Converter<String, Enum<?>> {
+
+        private final Class<?> enumClass;
+
+        StringToEnum(Class<?> enumClass) {
+            this.enumClass = enumClass;
+        }
+
+        @Override
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        public Enum<?> convert(String source) {
+            return Enum.valueOf((Class<Enum>) enumClass, source.trim());
+        }
+    }
+}
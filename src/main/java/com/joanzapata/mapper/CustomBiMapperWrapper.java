@@ -18,73 +18,55 @@
  */
 package com.joanzapata.mapper;
 
-import java.lang.reflect.Method;
+import java.util.List;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import static com.joanzapata.mapper.CustomMapperWrapper.findSignatures;
+import static com.joanzapata.mapper.CustomMapperWrapper.isApplicable;
 
 class CustomBiMapperWrapper<S, D> {
     
-    private static final Logger logger = LoggerFactory.getLogger(CustomBiMapperWrapper.class);
-
     private final CustomBiMapper<S, D> customBiMapper;
 
+    /** Parameter and return types of the mapForward() and mapBackward() methods, resolved once */
+    private final List<Class<?>[]> forwardSignatures, backwardSignatures;
+
+    private final CustomMappers.Match forward = new CustomMappers.Match() {
+        @SuppressWarnings("unchecked")
+        @Override
+        public Object map(Object source, MappingContext context) {
+            return customBiMapper.mapForward((S) source, context);
+        }
+    };
+
+    private final CustomMappers.Match backward = new CustomMappers.Match() {
+        @SuppressWarnings("unchecked")
+        @Override
+        public Object map(Object source, MappingContext context) {
+            return customBiMapper.mapBackward((D) source, context);
+        }
+    };
+
     CustomBiMapperWrapper(CustomBiMapper<S, D> customBiMapper) {
         this.customBiMapper = customBiMapper;
+        this.forwardSignatures = findSignatures(customBiMapper, "mapForward");
+        this.backwardSignatures = findSignatures(customBiMapper, "mapBackward");
     }
 
-    public boolean isApplicableForward(Object source, Class<?> destination) {
-        return isApplicable(source, destination, "mapForward");
+    public boolean isApplicableForward(Class<?> sourceClass, Class<?> destination) {
+        return isApplicable(forwardSignatures, sourceClass, destination);
     }
 
-    @SuppressWarnings("unchecked")
-    public D applyForward(Object source, Class<?> destination, MappingContext mappingContext) {
-        if (isApplicableForward(source, destination)) {
-            return applySafeForward((S) source, mappingContext);
-        } else return null;
+    public boolean isApplicableBackward(Class<?> sourceClass, Class<?> destination) {
+        return isApplicable(backwardSignatures, sourceClass, destination);
     }
 
-    private D applySafeForward(S source, MappingContext mappingContext) {
-        return customBiMapper.mapForward(source, mappingContext);
-    }
-    
-    public boolean isApplicableBackward(Object source, Class<?> destination) {
-        return isApplicable(source, destination, "mapBackward");
-    }
-    
-    @SuppressWarnings("unchecked")
-    public S applyBackward(Object source, Class<?> destination, MappingContext mappingContext) {
-        if (isApplicableBackward(source, destination)) {
-            return applySafeBackward((D) source, mappingContext);
-        } else return null;
+    /** @return Applies the custom bi mapper from S to D. */
+    CustomMappers.Match forward() {
+        return forward;
     }
 
-    private S applySafeBackward(D source, MappingContext mappingContext) {
-        return customBiMapper.mapBackward(source, mappingContext);
+    /** @return Applies the custom bi mapper from D to S. */
+    CustomMappers.Match backward() {
+        return backward;
     }
-    
-    private boolean isApplicable(Object source, Class<?> destination, String methodName) {
-        final Method[] methods = customBiMapper.getClass().getMethods();
-
-        for (Method method : methods) {
-            if (methodName.equals(method.getName())) {
-                Class<?> parameterType = method.getParameterTypes()[0];
-                Class<?> returnType = method.getReturnType();
-                
-                logger.debug("source: {}, destination: {}", source.getClass().getSimpleName(), destination.getSimpleName());
-                logger.debug("param: {}, return: {}", parameterType.getSimpleName(), returnType.getSimpleName());
-                
-                // Ignore Object because it's too large
-                if (parameterType != Object.class && returnType != Object.class &&
-                        // Parameter type of the user function will be assigned the source object
-                        parameterType.isAssignableFrom(source.getClass()) &&
-                        // The destination object will be assigned the object returned from user function
-                        destination.isAssignableFrom(returnType)) {
-                    return true;
-                }
-            }
-        }
-        return false;
-    }
-
 }
@@ -19,44 +19,59 @@
 package com.joanzapata.mapper;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 
-class CustomMapperWrapper<S, D> {
+class CustomMapperWrapper<S, D> implements CustomMappers.Match {
     
     private final CustomMapper<S, D> customMapper;
 
+    /** Parameter and return types of the map() methods of the custom mapper, resolved once */
+    private final List<Class<?>[]> signatures;
+
     CustomMapperWrapper(CustomMapper<S, D> customMapper) {
         this.customMapper = customMapper;
+        this.signatures = findSignatures(customMapper, "map");
+    }
+
+    public boolean isApplicable(Class<?> sourceClass, Class<?> destination) {
+        return isApplicable(signatures, sourceClass, destination);
     }
 
-    public boolean isApplicable(Object source, Class<?> destination) {
-        final Method[] methods = customMapper.getClass().getMethods();
+    @SuppressWarnings("unchecked")
+    @Override
+    public Object map(Object source, MappingContext mappingContext) {
+        return customMapper.map((S) source, mappingContext);
+    }
 
-        for (Method method : methods) {
-            if ("map".equals(method.getName())) {
+    /**
+     * Find the methods of the given name of a custom mapper.
+     * @return The [parameter type, return type] of each method, ignoring
+     * the ones using Object because it's too large (bridge methods).
+     */
+    static List<Class<?>[]> findSignatures(Object customMapper, String methodName) {
+        List<Class<?>[]> signatures = new ArrayList<Class<?>[]>();
+        for (Method method : customMapper.getClass().getMethods()) {
+            if (methodName.equals(method.getName())) {
                 Class<?> parameterType = method.getParameterTypes()[0];
                 Class<?> returnType = method.getReturnType();
-                
-                // Ignore Object because it's too large
-                if (parameterType != Object.class && returnType != Object.class &&
-                        // Parameter type of the user function will be assigned the source object
-                        parameterType.isAssignableFrom(source.getClass()) &&
-                        // The destination object will be assigned the object returned from user function
-                        destination.isAssignableFrom(returnType)) {
-                    return true;
+                if (parameterType != Object.class && returnType != Object.class) {
+                    signatures.add(new Class<?>[]{parameterType, returnType});
                 }
             }
         }
-        return false;
+        return signatures;
     }
 
-    @SuppressWarnings("unchecked")
-	public D apply(Object source, Class<?> destination, MappingContext mappingContext) {
-        if (isApplicable(source, destination)) {
-            return applySafe((S) source, mappingContext);
-        } else return null;
-    }
-
-    private D applySafe(S source, MappingContext mappingContext) {
-        return customMapper.map(source, mappingContext);
+    static boolean isApplicable(List<Class<?>[]> signatures, Class<?> sourceClass, Class<?> destination) {
+        for (Class<?>[] signature : signatures) {
+            // Parameter type of the user function will be assigned the source object
+            if (signature[0].isAssignableFrom(sourceClass) &&
+                    // The destination object will be assigned the object returned from user function
+                    destination.isAssignableFrom(signature[1])) {
+                return true;
+            }
+        }
+        return false;
     }
 }
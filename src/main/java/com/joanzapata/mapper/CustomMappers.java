@@ -0,0 +1,114 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The custom mappers and custom bi mappers of a Mapper. Finding the mapper
+ * for a (source class, destination class) pair is done once, the result,
+ * including the absence of mapper, is cached for the following lookups.
+ */
+final class CustomMappers {
+
+    /** Applies a custom mapper in the right direction. */
+    interface Match {
+        Object map(Object source, MappingContext context);
+    }
+
+    /** Returned by {@link #find(Class, Class)} when no custom mapper applies. */
+    static final Match NONE = new Match() {
+        @Override
+        public Object map(Object source, MappingContext context) {
+            throw new UnsupportedOperationException();
+        }
+    };
+
+    private final List<CustomMapperWrapper<?, ?>> customMappers;
+
+    private final List<CustomBiMapperWrapper<?, ?>> customBiMappers;
+
+    /** Source class -> destination class -> match */
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Match>> cache =
+            new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<?>, Match>>();
+
+    CustomMappers() {
+        customMappers = new ArrayList<CustomMapperWrapper<?, ?>>();
+        customBiMappers = new ArrayList<CustomBiMapperWrapper<?, ?>>();
+    }
+
+    /** Creates a read-only copy of the given custom mappers. */
+    CustomMappers(CustomMappers other) {
+        customMappers = Collections.unmodifiableList(new ArrayList<CustomMapperWrapper<?, ?>>(other.customMappers));
+        customBiMappers = Collections.unmodifiableList(new ArrayList<CustomBiMapperWrapper<?, ?>>(other.customBiMappers));
+    }
+
+    void add(CustomMapperWrapper<?, ?> customMapper) {
+        customMappers.add(customMapper);
+        cache.clear();
+    }
+
+    void add(CustomBiMapperWrapper<?, ?> customBiMapper) {
+        customBiMappers.add(customBiMapper);
+        cache.clear();
+    }
+
+    /**
+     * Find the custom mapper to use to map an object of the source class into the destination class.
+     * Custom mappers are tried first in the order they were added, then custom bi mappers.
+     * @return The match, or {@link #NONE}, never null.
+     */
+    Match find(Class<?> sourceClass, Class<?> destinationClass) {
+        if (customMappers.isEmpty() && customBiMappers.isEmpty()) return NONE;
+
+        ConcurrentMap<Class<?>, Match> byDestination = cache.get(sourceClass);
+        if (byDestination == null) {
+            byDestination = new ConcurrentHashMap<Class<?>, Match>();
+            ConcurrentMap<Class<?>, Match> existing = cache.putIfAbsent(sourceClass, byDestination);
+            if (existing != null) byDestination = existing;
+        }
+
+        Match match = byDestination.get(destinationClass);
+        if (match == null) {
+            match = resolve(sourceClass, destinationClass);
+            byDestination.put(destinationClass, match);
+        }
+        return match;
+    }
+
+    private Match resolve(Class<?> sourceClass, Class<?> destinationClass) {
+        for (CustomMapperWrapper<?, ?> customMapper : customMappers) {
+            if (customMapper.isApplicable(sourceClass, destinationClass)) {
+                return customMapper;
+            }
+        }
+        for (CustomBiMapperWrapper<?, ?> customBiMapper : customBiMappers) {
+            if (customBiMapper.isApplicableForward(sourceClass, destinationClass)) {
+                return customBiMapper.forward();
+            } else if (customBiMapper.isApplicableBackward(sourceClass, destinationClass)) {
+                return customBiMapper.backward();
+            }
+        }
+        return NONE;
+    }
+}
@@ -0,0 +1,143 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates presized collections of the same kind as the source (sorted, ordered, enum...),
+ * unless the destination declares a more specific type. Sorted destinations use the natural
+ * ordering of the mapped elements, since the source comparator applies to the source elements:
+ * a sorted source with elements which aren't comparable keeps its order in a linked collection.
+ * Unordered sets of enum constants, and unordered maps with enum keys, become an EnumSet
+ * or an EnumMap whenever the destination allows it.
+ */
+final class DefaultCollectionFactory implements CollectionFactory {
+
+    @Override
+    public Collection<?> newCollection(Object source, Class<?> destinationType, Class<?> elementType, int size) {
+        if (destinationType == EnumSet.class && elementType != null && elementType.isEnum()) return newEnumSet(elementType);
+        if (isInstantiable(destinationType)) return (Collection<?>) instantiate(destinationType, size);
+
+        Collection<?> sameKind = sameKind(source, elementType, size);
+        if (sameKind != null && destinationType.isInstance(sameKind)) return sameKind;
+
+        if (destinationType.isAssignableFrom(ArrayList.class)) return new ArrayList<Object>(size);
+        if (destinationType.isAssignableFrom(TreeSet.class)) {
+            // Set, SortedSet and NavigableSet: only the sorted ones need a TreeSet
+            return SortedSet.class.isAssignableFrom(destinationType) ? new TreeSet<Object>() : new HashSet<Object>(capacity(size));
+        }
+        if (destinationType.isAssignableFrom(ArrayDeque.class)) return new ArrayDeque<Object>(size);
+        return null;
+    }
+
+    @Override
+    public Map<?, ?> newMap(Map<?, ?> source, Class<?> destinationType, Class<?> keyType, int size) {
+        // EnumMap has no no-arg constructor, it needs the key type
+        if (destinationType == EnumMap.class && keyType != null && keyType.isEnum()) return newEnumMap(keyType);
+        if (isInstantiable(destinationType)) return (Map<?, ?>) instantiate(destinationType, size);
+
+        Map<?, ?> sameKind = null;
+        if (source instanceof EnumMap && keyType != null && keyType.isEnum()) sameKind = newEnumMap(keyType);
+        else if (source instanceof SortedMap && isComparable(keyType)) sameKind = new TreeMap<Object, Object>();
+        else if (source instanceof SortedMap || source instanceof LinkedHashMap) sameKind = new LinkedHashMap<Object, Object>(capacity(size));
+        else if (keyType != null && keyType.isEnum()) sameKind = newEnumMap(keyType);
+        if (sameKind != null && destinationType.isInstance(sameKind)) return sameKind;
+
+        if (destinationType.isAssignableFrom(HashMap.class)) return new HashMap<Object, Object>(capacity(size));
+        if (destinationType.isAssignableFrom(TreeMap.class)) return new TreeMap<Object, Object>();
+        if (destinationType.isAssignableFrom(ConcurrentHashMap.class)) return new ConcurrentHashMap<Object, Object>(capacity(size));
+        return null;
+    }
+
+    /** @return A collection of the same kind as the source, or null if the source is not a collection. */
+    private static Collection<?> sameKind(Object source, Class<?> elementType, int size) {
+        if (source instanceof EnumSet && elementType != null && elementType.isEnum()) return newEnumSet(elementType);
+        if (source instanceof SortedSet && isComparable(elementType)) return new TreeSet<Object>();
+        if (source instanceof SortedSet || source instanceof LinkedHashSet) return new LinkedHashSet<Object>(capacity(size));
+        if (source instanceof Set && elementType != null && elementType.isEnum()) return newEnumSet(elementType);
+        if (source instanceof Set) return new HashSet<Object>(capacity(size));
+        if (source instanceof List) return new ArrayList<Object>(size);
+        if (source instanceof PriorityQueue && isComparable(elementType)) return new PriorityQueue<Object>(Math.max(size, 1));
+        if (source instanceof Queue) return new ArrayDeque<Object>(size);
+        return null;
+    }
+
+    private static boolean isComparable(Class<?> type) {
+        return type != null && Comparable.class.isAssignableFrom(type);
+    }
+
+    /** @return True for concrete collection and map classes, like a TreeSet property. */
+    private static boolean isInstantiable(Class<?> type) {
+        return !type.isInterface() && !Modifier.isAbstract(type.getModifiers());
+    }
+
+    /** Use the constructor taking an initial capacity if any, ArrayList(int), HashMap(int)... */
+    private static Object instantiate(Class<?> type, int size) {
+        try {
+            if (type == HashSet.class || type == LinkedHashSet.class || type == HashMap.class
+                    || type == LinkedHashMap.class || type == ConcurrentHashMap.class) {
+                return type.getConstructor(int.class).newInstance(capacity(size));
+            }
+            if (type == ArrayList.class || type == ArrayDeque.class) {
+                return type.getConstructor(int.class).newInstance(size);
+            }
+            Constructor<?> constructor = type.getConstructor();
+            return constructor.newInstance();
+        } catch (Exception e) {
+            throw new RuntimeException("Unable to create instance of " + type.getName() + ", please check there is a public no-arg constructor.");
+        }
+    }
+
+    /** Capacity of a hash based collection holding the given number of elements without rehashing */
+    private static int capacity(int size) {
+        return size < 3 ? size + 1 : (int) (size / 0.75f + 1);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Collection<?> newEnumSet(Class<?> elementType) {
+        return EnumSet.noneOf((Class<Enum>) elementType);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Map<?, ?> newEnumMap(Class<?> keyType) {
+        return new EnumMap((Class<Enum>) keyType);
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Translates enum constants by name, or using the renames and fallbacks given by the user.
+ * The translation of each (source enum, destination enum) pair is computed once, as an
+ * array of destination constants indexed by the ordinal of the source constants.
+ */
+final class EnumTranslations {
+
+    /** Source constant -> destination constant */
+    private final Map<Enum<?>, List<Enum<?>>> renames;
+
+    /** Destination enum -> constant to use when no other matches */
+    private final Map<Class<?>, Enum<?>> fallbacks;
+
+    /** Source enum -> destination enum -> destination constants by source ordinal */
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, Enum<?>[]>> tables =
+            new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<?>, Enum<?>[]>>();
+
+    EnumTranslations() {
+        renames = new HashMap<Enum<?>, List<Enum<?>>>();
+        fallbacks = new HashMap<Class<?>, Enum<?>>();
+    }
+
+    /** Creates a read-only copy of the given translations. */
+    EnumTranslations(EnumTranslations other) {
+        Map<Enum<?>, List<Enum<?>>> renames = new HashMap<Enum<?>, List<Enum<?>>>();
+        for (Map.Entry<Enum<?>, List<Enum<?>>> rename : other.renames.entrySet()) {
+            renames.put(rename.getKey(), Collections.unmodifiableList(new ArrayList<Enum<?>>(rename.getValue())));
+        }
+        this.renames = Collections.unmodifiableMap(renames);
+        fallbacks = Collections.unmodifiableMap(new HashMap<Class<?>, Enum<?>>(other.fallbacks));
+    }
+
+    void addRename(Enum<?> source, Enum<?> destination) {
+        List<Enum<?>> destinations = renames.get(source);
+        if (destinations == null) {
+            destinations = new ArrayList<Enum<?>>();
+            renames.put(source, destinations);
+        }
+        destinations.add(destination);
+        tables.clear();
+    }
+
+    void addFallback(Enum<?> fallback) {
+        fallbacks.put(fallback.getDeclaringClass(), fallback);
+        tables.clear();
+    }
+
+    /** @return The destination constant, or null if none matches. */
+    Enum<?> translate(Enum<?> source, Class<?> destinationClass) {
+        Class<?> sourceClass = source.getDeclaringClass();
+        ConcurrentMap<Class<?>, Enum<?>[]> byDestination = tables.get(sourceClass);
+        if (byDestination == null) {
+            byDestination = new ConcurrentHashMap<Class<?>, Enum<?>[]>();
+            ConcurrentMap<Class<?>, Enum<?>[]> existing = tables.putIfAbsent(sourceClass, byDestination);
+            if (existing != null) byDestination = existing;
+        }
+
+        Enum<?>[] table = byDestination.get(destinationClass);
+        if (table == null) {
+            table = createTable(sourceClass, destinationClass);
+            byDestination.put(destinationClass, table);
+        }
+        return table[source.ordinal()];
+    }
+
+    private Enum<?>[] createTable(Class<?> sourceClass, Class<?> destinationClass) {
+        Map<String, Enum<?>> destinationsByName = new HashMap<String, Enum<?>>();
+        for (Object constant : destinationClass.getEnumConstants()) {
+            destinationsByName.put(((Enum<?>) constant).name(), (Enum<?>) constant);
+        }
+
+        Object[] sourceConstants = sourceClass.getEnumConstants();
+        Enum<?>[] table = new Enum<?>[sourceConstants.length];
+        for (int i = 0; i < sourceConstants.length; i++) {
+            Enum<?> source = (Enum<?>) sourceConstants[i];
+            table[i] = renamed(source, destinationClass);
+            if (table[i] == null) table[i] = destinationsByName.get(source.name());
+            if (table[i] == null) table[i] = fallbacks.get(destinationClass);
+        }
+        return table;
+    }
+
+    private Enum<?> renamed(Enum<?> source, Class<?> destinationClass) {
+        List<Enum<?>> destinations = renames.get(source);
+        if (destinations == null) return null;
+        for (Enum<?> destination : destinations) {
+            if (destination.getDeclaringClass() == destinationClass) return destination;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,50 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Repeatable;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declare a pair of classes for which a mapper should be generated at compile time.
+ * It can be put on any class of the project, as long as the simple-mapper-processor
+ * is on the annotation processor path. At runtime the Mapper will use the generated
+ * mapper for this exact pair instead of reflection.
+ * <pre>
+ * &#064;GenerateMapping(source = Book.class, destination = BookDTO.class)
+ * &#064;GenerateMapping(source = BookDTO.class, destination = Book.class)
+ * public class MappingConfig {}
+ * </pre>
+ */
+@Documented
+@Retention(RetentionPolicy.CLASS)
+@Target(ElementType.TYPE)
+@Repeatable(GenerateMappings.class)
+public @interface GenerateMapping {
+
+    /** The source class, as returned by getClass() on the mapped object. */
+    Class<?> source();
+
+    /** The destination class. */
+    Class<?> destination();
+}
@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+/**
+ * Mapper generated at compile time by the simple-mapper-processor for
+ * a pair declared with {@link GenerateMapping}. Generated mappers are
+ * registered as services and picked up by every new Mapper.
+ * <p>
+ * A generated mapper only copies the properties, the Mapper still creates
+ * the destination, manages cyclic dependencies and applies hooks. Nested
+ * objects are handed back to the Mapper through the {@link Callback}.
+ * @param <S> Source type.
+ * @param <D> Destination type.
+ */
+public interface GeneratedMapper<S, D> {
+
+    /** @return The exact source class this mapper applies to. */
+    Class<S> getSourceClass();
+
+    /** @return The exact destination class this mapper applies to. */
+    Class<D> getDestinationClass();
+
+    /**
+     * Copy all the properties of the source into the destination.
+     * @param source      The source object.
+     * @param destination The destination object, already created.
+     * @param callback    Used to map nested objects and report errors.
+     */
+    void map(S source, D destination, Callback callback);
+
+    /** Gives access to the Mapper from a generated mapper. */
+    interface Callback {
+
+        /**
+         * Map a nested object, exactly as the Mapper would do for a property.
+         * @param value            The value returned by the getter, not null.
+         * @param destinationClass The parameter type of the setter.
+         * @return The mapped value.
+         */
+        Object map(Object value, Class<?> destinationClass);
+
+        /**
+         * Same as {@link #map(Object, Class)} for a parameterized setter type.
+         * @param typeArguments The type arguments of the setter parameter, like the element class of a list.
+         */
+        Object map(Object value, Class<?> destinationClass, Class<?>[] typeArguments);
+
+        /**
+         * Same as {@link #map(Object, Class)} for a value whose type can't be assigned to the setter.
+         * The converter of the pair is applied if any, unless a custom mapper handles it.
+         * @param valueClass The return type of the getter.
+         */
+        Object convert(Object value, Class<?> valueClass, Class<?> destinationClass);
+
+        /**
+         * Tell if a custom mapper handles the boxed types of a pair. The primitive properties
+         * the generated mapper copies directly go through {@link #convert(Object, Class, Class)} then.
+         * @param valueClass The return type of the getter.
+         * @return True if a custom mapper applies to the pair.
+         */
+        boolean hasCustomMapper(Class<?> valueClass, Class<?> destinationClass);
+
+        /**
+         * Report an error while mapping a property. Depending on the strict
+         * mode, this will throw a StrictModeException or ignore the property.
+         * @param setterName The name of the setter that couldn't be applied.
+         * @param e          The error.
+         */
+        void failed(String setterName, Exception e);
+    }
+}
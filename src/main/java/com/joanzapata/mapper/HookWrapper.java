@@ -19,31 +19,41 @@
 package com.joanzapata.mapper;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
 
 class HookWrapper<S, D> {
 
-    private Hook<S, D> hook;
+    private final Hook<S, D> hook;
+
+    /** Parameter types of the extraMapping() methods of the hook, resolved once */
+    private final List<Class<?>[]> signatures;
 
     HookWrapper(Hook<S, D> hook) {
         this.hook = hook;
-    }
-
-    @SuppressWarnings("unchecked")
-	public void apply(Object source, Object destination) {
+        this.signatures = new ArrayList<Class<?>[]>();
         for (Method method : hook.getClass().getMethods()) {
             if ("extraMapping".equals(method.getName())) {
                 Class<?>[] parameterTypes = method.getParameterTypes();
-                Class<?> sourceClass = parameterTypes[0];
-                Class<?> destinationClass = parameterTypes[1];
-                if (sourceClass != Object.class && destinationClass != Object.class && sourceClass.isAssignableFrom(source.getClass()) &&
-                        destinationClass.isAssignableFrom(destination.getClass())) {
-                    applySafe((S) source, (D) destination);
+                // Ignore Object because it's too large (bridge methods)
+                if (parameterTypes[0] != Object.class && parameterTypes[1] != Object.class) {
+                    signatures.add(parameterTypes);
                 }
             }
         }
     }
 
-    private void applySafe(S source, D destination) {
-        hook.extraMapping(source, destination);
+    public boolean isApplicable(Class<?> sourceClass, Class<?> destinationClass) {
+        for (Class<?>[] signature : signatures) {
+            if (signature[0].isAssignableFrom(sourceClass) && signature[1].isAssignableFrom(destinationClass)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    public void apply(Object source, Object destination) {
+        hook.extraMapping((S) source, (D) destination);
     }
 }
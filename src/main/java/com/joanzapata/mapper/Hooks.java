@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The hooks of a Mapper. The hooks applicable to a (source class, destination class)
+ * pair are computed once into a chain, in the order they were added.
+ */
+final class Hooks {
+
+    private static final HookWrapper<?, ?>[] EMPTY_CHAIN = new HookWrapper<?, ?>[0];
+
+    private final List<HookWrapper<?, ?>> hooks;
+
+    /** Source class -> destination class -> applicable hooks */
+    private final ConcurrentMap<Class<?>, ConcurrentMap<Class<?>, HookWrapper<?, ?>[]>> chains =
+            new ConcurrentHashMap<Class<?>, ConcurrentMap<Class<?>, HookWrapper<?, ?>[]>>();
+
+    Hooks() {
+        hooks = new ArrayList<HookWrapper<?, ?>>();
+    }
+
+    /** Creates a read-only copy of the given hooks. */
+    Hooks(Hooks other) {
+        hooks = Collections.unmodifiableList(new ArrayList<HookWrapper<?, ?>>(other.hooks));
+    }
+
+    void add(HookWrapper<?, ?> hook) {
+        hooks.add(hook);
+        chains.clear();
+    }
+
+    /** Apply all the hooks applicable to the source and destination objects, in the order they were added. */
+    void apply(Object source, Object destination) {
+        if (hooks.isEmpty()) return;
+        for (HookWrapper<?, ?> hook : findChain(source.getClass(), destination.getClass())) {
+            hook.apply(source, destination);
+        }
+    }
+
+    /** Resolve the hooks applicable to the given classes ahead of the mapping. */
+    void prepare(Class<?> sourceClass, Class<?> destinationClass) {
+        if (!hooks.isEmpty()) findChain(sourceClass, destinationClass);
+    }
+
+    private HookWrapper<?, ?>[] findChain(Class<?> sourceClass, Class<?> destinationClass) {
+        ConcurrentMap<Class<?>, HookWrapper<?, ?>[]> byDestination = chains.get(sourceClass);
+        if (byDestination == null) {
+            byDestination = new ConcurrentHashMap<Class<?>, HookWrapper<?, ?>[]>();
+            ConcurrentMap<Class<?>, HookWrapper<?, ?>[]> existing = chains.putIfAbsent(sourceClass, byDestination);
+            if (existing != null) byDestination = existing;
+        }
+
+        HookWrapper<?, ?>[] chain = byDestination.get(destinationClass);
+        if (chain == null) {
+            List<HookWrapper<?, ?>> applicable = new ArrayList<HookWrapper<?, ?>>();
+            for (HookWrapper<?, ?> hook : hooks) {
+                if (hook.isApplicable(sourceClass, destinationClass)) applicable.add(hook);
+            }
+            chain = applicable.isEmpty() ? EMPTY_CHAIN : applicable.toArray(new HookWrapper<?, ?>[applicable.size()]);
+            byDestination.put(destinationClass, chain);
+        }
+        return chain;
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Map from source objects to destination objects, comparing the keys by reference
+ * like an IdentityHashMap, so the hashCode() and equals() of the model are never called.
+ * Keys and values are stored side by side in a single array: small tables are scanned
+ * linearly, bigger ones use open addressing with linear probing. Keys can't be null.
+ */
+final class IdentityTable {
+
+    /** Number of entries up to which the table is scanned instead of hashed */
+    static final int LINEAR_THRESHOLD = 8;
+
+    /** Keys at even indexes, values at odd indexes, null until the first put */
+    private Object[] table;
+
+    private int size;
+
+    /** log2 of the capacity in hashed mode, 0 in linear mode */
+    private int bits;
+
+    Object get(Object key) {
+        Object[] tab = table;
+        if (tab == null) return null;
+        if (bits == 0) {
+            for (int i = 0, n = size << 1; i < n; i += 2) {
+                if (tab[i] == key) return tab[i + 1];
+            }
+            return null;
+        }
+        int mask = tab.length - 1;
+        for (int i = index(key, bits); ; i = (i + 2) & mask) {
+            Object candidate = tab[i];
+            if (candidate == key) return tab[i + 1];
+            if (candidate == null) return null;
+        }
+    }
+
+    void put(Object key, Object value) {
+        if (table == null) table = new Object[LINEAR_THRESHOLD << 1];
+        if (bits == 0) {
+            for (int i = 0, n = size << 1; i < n; i += 2) {
+                if (table[i] == key) {
+                    table[i + 1] = value;
+                    return;
+                }
+            }
+            if (size < LINEAR_THRESHOLD) {
+                table[size << 1] = key;
+                table[(size << 1) + 1] = value;
+                size++;
+                return;
+            }
+            // Switch to hashing, with room for 4 times the linear entries
+            rehash(Integer.numberOfTrailingZeros(LINEAR_THRESHOLD) + 2);
+        } else if (3 * (size + 1) > 2 << bits) {
+            // Keep the load factor under 2/3
+            rehash(bits + 1);
+        }
+        if (insert(table, bits, key, value)) size++;
+    }
+
+    /** Put all the entries of the other table in this one. */
+    void putAll(IdentityTable other) {
+        Object[] tab = other.table;
+        if (tab == null) return;
+        for (int i = 0; i < tab.length; i += 2) {
+            if (tab[i] != null) put(tab[i], tab[i + 1]);
+        }
+    }
+
+    void forEach(BiConsumer<Object, Object> action) {
+        Object[] tab = table;
+        if (tab == null) return;
+        for (int i = 0; i < tab.length; i += 2) {
+            if (tab[i] != null) action.accept(tab[i], tab[i + 1]);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void rehash(int newBits) {
+        Object[] oldTable = table;
+        Object[] newTable = new Object[2 << newBits];
+        for (int i = 0; i < oldTable.length; i += 2) {
+            if (oldTable[i] != null) insert(newTable, newBits, oldTable[i], oldTable[i + 1]);
+        }
+        table = newTable;
+        bits = newBits;
+    }
+
+    /** @return true if the key was added, false if its value was replaced. */
+    private static boolean insert(Object[] tab, int bits, Object key, Object value) {
+        int mask = tab.length - 1;
+        for (int i = index(key, bits); ; i = (i + 2) & mask) {
+            Object candidate = tab[i];
+            if (candidate == null) {
+                tab[i] = key;
+                tab[i + 1] = value;
+                return true;
+            }
+            if (candidate == key) {
+                tab[i + 1] = value;
+                return false;
+            }
+        }
+    }
+
+    /** Fibonacci hashing of the identity hash code, gives the index of the key slot. */
+    private static int index(Object key, int bits) {
+        return ((System.identityHashCode(key) * 0x9E3779B9) >>> (32 - bits)) << 1;
+    }
+}
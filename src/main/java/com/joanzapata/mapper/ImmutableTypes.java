@@ -0,0 +1,93 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.MonthDay;
+import java.time.OffsetDateTime;
+import java.time.OffsetTime;
+import java.time.Period;
+import java.time.Year;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.util.Arrays.asList;
+
+/**
+ * Immutable types whose instances are given as is to the destination, instead of being mapped.
+ * Their subclasses are immutable too, ZoneId being implemented by ZoneOffset for example.
+ */
+final class ImmutableTypes {
+
+    private static final List<Class<?>> BUILT_IN = Collections.unmodifiableList(asList(
+            BigDecimal.class, BigInteger.class, UUID.class, URI.class, Locale.class, Currency.class,
+            Instant.class, LocalDate.class, LocalTime.class, LocalDateTime.class, ZonedDateTime.class,
+            OffsetDateTime.class, OffsetTime.class, Duration.class, Period.class, Year.class,
+            YearMonth.class, MonthDay.class, ZoneId.class));
+
+    private final List<Class<?>> types;
+
+    /** Class -> immutable or not, resolved once per class */
+    private final ConcurrentMap<Class<?>, Boolean> resolved = new ConcurrentHashMap<Class<?>, Boolean>();
+
+    ImmutableTypes() {
+        types = new ArrayList<Class<?>>(BUILT_IN);
+    }
+
+    /** Creates a read-only copy of the given types. */
+    ImmutableTypes(ImmutableTypes other) {
+        types = Collections.unmodifiableList(new ArrayList<Class<?>>(other.types));
+    }
+
+    void add(Class<?> type) {
+        types.add(type);
+        resolved.clear();
+    }
+
+    boolean contains(Class<?> type) {
+        Boolean immutable = resolved.get(type);
+        if (immutable == null) {
+            immutable = false;
+            for (Class<?> immutableType : types) {
+                if (immutableType.isAssignableFrom(type)) {
+                    immutable = true;
+                    break;
+                }
+            }
+            resolved.put(type, immutable);
+        }
+        return immutable;
+    }
+}
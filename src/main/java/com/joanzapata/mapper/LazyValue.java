@@ -0,0 +1,88 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.function.Supplier;
+
+/**
+ * Handler of the proxies given to the destination in lazy mode. The value is mapped on the
+ * first call to the proxy, under the lock of the mapping context: the values of a same graph
+ * are mapped one at a time, since they share the context and its already mapped objects.
+ */
+final class LazyValue implements InvocationHandler {
+
+    private final Object lock;
+
+    /** Maps the value, cleared once done so that the source can be collected */
+    private Supplier<Object> loader;
+
+    private volatile boolean loaded;
+
+    private Object value;
+
+    private LazyValue(Object lock, Supplier<Object> loader) {
+        this.lock = lock;
+        this.loader = loader;
+    }
+
+    /**
+     * @param type   The interface implemented by the proxy.
+     * @param lock   The lock to hold while mapping the value.
+     * @param loader Maps the value, an instance of the given type.
+     * @return A proxy mapping the value on first use, and delegating all the calls to it.
+     */
+    static Object proxy(Class<?> type, Object lock, Supplier<Object> loader) {
+        ClassLoader classLoader = type.getClassLoader() != null ? type.getClassLoader() : LazyValue.class.getClassLoader();
+        return Proxy.newProxyInstance(classLoader, new Class<?>[]{type}, new LazyValue(lock, loader));
+    }
+
+    private Object get() {
+        if (!loaded) {
+            synchronized (lock) {
+                if (!loaded) {
+                    value = loader.get();
+                    loader = null;
+                    loaded = true;
+                }
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Object target = get();
+        if (target == null) {
+            // The value couldn't be mapped, the proxy behaves like a null reference
+            if (method.getName().equals("equals") && args != null && args.length == 1) return proxy == args[0];
+            if (method.getName().equals("hashCode") && args == null) return 0;
+            if (method.getName().equals("toString") && args == null) return "null";
+            throw new NullPointerException("The lazy value was mapped to null, unable to call " + method.getName() + "()");
+        }
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
@@ -21,23 +21,50 @@ package com.joanzapata.mapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Method;
+import java.io.File;
+import java.lang.reflect.Array;
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.Member;
 import java.lang.reflect.ParameterizedType;
 import java.lang.reflect.Type;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
-import java.util.Queue;
+import java.util.NoSuchElementException;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.BiConsumer;
+import java.util.function.BinaryOperator;
+import java.util.function.Supplier;
+import java.util.stream.Collector;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import static com.joanzapata.mapper.MapperUtil.*;
 import static java.util.Arrays.asList;
 
-/** Create a new Mapper and map objects using the map() method. */
+/**
+ * Create a new Mapper and map objects using the map() method.
+ * The configuration methods of a Mapper must not be called while it's mapping objects,
+ * use a {@link MapperBuilder} to get a mapper which can't be modified anymore.
+ */
 public final class Mapper {
 
     private final Logger logger = LoggerFactory.getLogger(Mapper.class);
@@ -46,19 +73,91 @@ public final class Mapper {
 
     private final List<String> knownSuffixes = asList("DTO", "BO");
 
-    private final List<HookWrapper<?, ?>> hooks;
+    private final Hooks hooks;
 
-    private final List<CustomMapperWrapper<?,?>> customMappers;
-    
-    private final List<CustomBiMapperWrapper<?, ?>> customBiMappers;
-    
-    private boolean strictMode = false;
+    private final CustomMappers customMappers;
+
+    private final CollectionFactories collectionFactories;
+
+    private final ConverterRegistry converters;
+
+    private final ImmutableTypes immutableTypes;
+
+    private final EnumTranslations enumTranslations;
+
+    /** How the properties of the classes are discovered, getters and setters by default */
+    private final Map<Class<?>, PropertyAccess> propertyAccess;
+
+    /** Compiled mapping plans, by (source class, destination class) */
+    private final ConcurrentMap<MappingPlan.Key, MappingPlan> plans;
+
+    /** Mappers generated at compile time, by (source class, destination class) */
+    private final Map<MappingPlan.Key, GeneratedMapper<?, ?>> generatedMappers;
+
+    /** Held by a final field, so that a frozen mapper can be shared between threads safely */
+    private final Settings settings;
+
+    /** True if built by a MapperBuilder, the configuration can't be changed then */
+    private final boolean frozen;
 
     public Mapper() {
+        plans = new ConcurrentHashMap<MappingPlan.Key, MappingPlan>();
+        generatedMappers = loadGeneratedMappers();
         mappings = new HashMap<Class<?>, Class<?>>();
-        hooks = new ArrayList<HookWrapper<?, ?>>();
-        customMappers = new ArrayList<CustomMapperWrapper<?, ?>>();
-        customBiMappers = new ArrayList<CustomBiMapperWrapper<?, ?>>();
+        hooks = new Hooks();
+        customMappers = new CustomMappers();
+        collectionFactories = new CollectionFactories();
+        converters = new ConverterRegistry();
+        immutableTypes = new ImmutableTypes();
+        enumTranslations = new EnumTranslations();
+        propertyAccess = new HashMap<Class<?>, PropertyAccess>();
+        settings = new Settings();
+        frozen = false;
+    }
+
+    /**
+     * Load the generated mappers registered as services. A provider which can't be loaded, like a stale
+     * entry of the service file, is skipped: its pair is mapped by reflection.
+     */
+    private Map<MappingPlan.Key, GeneratedMapper<?, ?>> loadGeneratedMappers() {
+        Map<MappingPlan.Key, GeneratedMapper<?, ?>> generatedMappers = new HashMap<MappingPlan.Key, GeneratedMapper<?, ?>>();
+        Iterator<GeneratedMapper> providers = ServiceLoader.load(GeneratedMapper.class).iterator();
+        while (hasNextProvider(providers)) {
+            try {
+                GeneratedMapper<?, ?> generatedMapper = providers.next();
+                generatedMappers.put(new MappingPlan.Key(generatedMapper.getSourceClass(),
+                        generatedMapper.getDestinationClass()), generatedMapper);
+            } catch (ServiceConfigurationError e) {
+                logger.warn("Unable to load a generated mapper, its pair will be mapped by reflection", e);
+            }
+        }
+        return generatedMappers;
+    }
+
+    /** @return False at the end, or if the service files can't be read: the next providers can't be reached. */
+    private boolean hasNextProvider(Iterator<GeneratedMapper> providers) {
+        try {
+            return providers.hasNext();
+        } catch (ServiceConfigurationError e) {
+            logger.warn("Unable to read the generated mappers, the following ones will be mapped by reflection", e);
+            return false;
+        }
+    }
+
+    /** Creates a frozen copy of the given mapper, see {@link MapperBuilder}. */
+    Mapper(Mapper prototype) {
+        plans = new ConcurrentHashMap<MappingPlan.Key, MappingPlan>();
+        generatedMappers = prototype.generatedMappers;
+        mappings = Collections.unmodifiableMap(new HashMap<Class<?>, Class<?>>(prototype.mappings));
+        hooks = new Hooks(prototype.hooks);
+        customMappers = new CustomMappers(prototype.customMappers);
+        collectionFactories = new CollectionFactories(prototype.collectionFactories);
+        converters = new ConverterRegistry(prototype.converters);
+        immutableTypes = new ImmutableTypes(prototype.immutableTypes);
+        enumTranslations = new EnumTranslations(prototype.enumTranslations);
+        propertyAccess = Collections.unmodifiableMap(new HashMap<Class<?>, PropertyAccess>(prototype.propertyAccess));
+        settings = new Settings(prototype.settings);
+        frozen = true;
     }
 
     /**
@@ -67,7 +166,8 @@ public final class Mapper {
      * a StrictModeException will be thrown. <b>Default is false.</b>
      */
     public Mapper strictMode(boolean strictMode) {
-        this.strictMode = strictMode;
+        checkNotFrozen();
+        settings.strictMode = strictMode;
         return this;
     }
 
@@ -81,6 +181,108 @@ public final class Mapper {
         return strictMode(true);
     }
 
+    /**
+     * If set to true, the objects given to this mapper are considered as trees: an object
+     * is never reachable twice. The cyclic dependencies management is skipped, so objects
+     * already mapped are not retained during the mapping. <b>Default is false.</b>
+     * An object reachable twice will be mapped twice, and a cycle will overflow the stack,
+     * see {@link #treeMode(int)} to detect it.
+     */
+    public Mapper treeMode(boolean treeMode) {
+        checkNotFrozen();
+        settings.treeMode = treeMode;
+        return this;
+    }
+
+    /** Set the tree mode to true (false by default), see {@link #treeMode(boolean)}. */
+    public Mapper treeMode() {
+        return treeMode(true);
+    }
+
+    /**
+     * If set to true, the nested objects, collections and maps of a destination are mapped when
+     * they are used for the first time, instead of during the map() call. Only the properties
+     * typed with an interface are mapped lazily, like List, Map or your own interfaces: they are
+     * given a proxy, which maps the value and delegates all the calls to it.
+     * The source objects are retained until their proxy is used, and the errors of the mapping
+     * are thrown by the first call to the proxy. <b>Default is false.</b>
+     */
+    public Mapper lazyMode(boolean lazyMode) {
+        checkNotFrozen();
+        settings.lazyMode = lazyMode;
+        return this;
+    }
+
+    /** Set the lazy mode to true (false by default), see {@link #lazyMode(boolean)}. */
+    public Mapper lazyMode() {
+        return lazyMode(true);
+    }
+
+    /**
+     * Set the tree mode to true, with a guard against cycles: if the mapping goes deeper than
+     * the given depth, a MaxDepthExceededException is thrown instead of overflowing the stack.
+     * @param maxDepth The maximum depth of the mapped objects, the root object being at depth 1.
+     */
+    public Mapper treeMode(int maxDepth) {
+        checkNotFrozen();
+        settings.maxDepth = maxDepth;
+        return treeMode(true);
+    }
+
+    /**
+     * Map the collections and maps given directly to the map() methods in parallel,
+     * using the common ForkJoinPool, if their size is at least the given threshold.
+     * The order of the lists is kept, and objects shared between elements are still
+     * mapped only once. Custom mappers and hooks must then be thread-safe.
+     * @param threshold The minimum size of the collections to map in parallel.
+     * @return The current mapper for chaining.
+     */
+    public Mapper parallel(int threshold) {
+        return parallel(threshold, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Same as {@link #parallel(int)}, using the given executor.
+     * @param threshold The minimum size of the collections to map in parallel.
+     * @param executor  The executor to run the mapping on, null to disable the parallel mapping.
+     * @return The current mapper for chaining.
+     */
+    public Mapper parallel(int threshold, ExecutorService executor) {
+        checkNotFrozen();
+        settings.parallelThreshold = threshold;
+        settings.parallelExecutor = executor;
+        return this;
+    }
+
+    /**
+     * Reuse the mapping plans saved in the given file by a previous run, see {@link #savePlanCache()}.
+     * Plans are only reused if their classes haven't changed since, the other ones are rebuilt.
+     * Useful for short-lived processes, which would otherwise spend a large part of their time
+     * looking for the getters matching the setters.
+     * @param file The cache file, it doesn't need to exist yet.
+     * @return The current mapper for chaining.
+     */
+    public Mapper planCache(File file) {
+        checkNotFrozen();
+        settings.planCache = new PlanCache(file);
+        return this;
+    }
+
+    /**
+     * Save the mapping plans built so far to the file given to {@link #planCache(File)},
+     * for the next run. Plans of the file which weren't used by this run are kept.
+     * @throws java.io.UncheckedIOException if the file can't be written.
+     */
+    public void savePlanCache() {
+        if (settings.planCache == null) throw new IllegalStateException("No plan cache file, see planCache(File)");
+        // Projected plans miss properties, they would replace the full plans of their pair in the file
+        List<MappingPlan> fullPlans = new ArrayList<MappingPlan>();
+        for (Map.Entry<MappingPlan.Key, MappingPlan> plan : plans.entrySet()) {
+            if (!plan.getKey().isProjected()) fullPlans.add(plan.getValue());
+        }
+        settings.planCache.save(fullPlans);
+    }
+
     /**
      * Adds an explicit mapping from a source class to a destination class.
      * You shouldn't need this unless you're using inheritance.
@@ -89,6 +291,7 @@ public final class Mapper {
      * @return The current mapper for chaining.
      */
     public Mapper mapping(Class<?> sourceClass, Class<?> destinationClass) {
+        checkNotFrozen();
         mappings.put(sourceClass, destinationClass);
         return this;
     }
@@ -106,6 +309,7 @@ public final class Mapper {
      * @return The current mapper for chaining.
      */
     public <S, D> Mapper hook(Hook<S, D> hook) {
+        checkNotFrozen();
         hooks.add(new HookWrapper<S, D>(hook));
         return this;
     }
@@ -119,7 +323,10 @@ public final class Mapper {
      * @return The current mapper for chaining.
      */
     public <S, D> Mapper customMapper(CustomMapper<S, D> customMapper) {
+        checkNotFrozen();
         customMappers.add(new CustomMapperWrapper<S, D>(customMapper));
+        // Custom mappers take precedence over the converters and copiers bound to the plans
+        plans.clear();
         return this;
     }
     
@@ -132,11 +339,141 @@ public final class Mapper {
      * @return The current mapper for chaining.
      */
     public <S, D> Mapper customBiMapper(final CustomBiMapper<S, D> customBiMapper) {
-        customBiMappers.add(new CustomBiMapperWrapper<S, D>(customBiMapper));
+        checkNotFrozen();
+        customMappers.add(new CustomBiMapperWrapper<S, D>(customBiMapper));
+        plans.clear();
         return this;
     }
     
 
+    /**
+     * Map an enum constant to a constant with another name. By default,
+     * enum constants are mapped to the constant of the same name.
+     * @param source      The source constant.
+     * @param destination The destination constant.
+     * @return The current mapper for chaining.
+     */
+    public Mapper enumMapping(Enum<?> source, Enum<?> destination) {
+        checkNotFrozen();
+        enumTranslations.addRename(source, destination);
+        return this;
+    }
+
+    /**
+     * Set the constant to use when mapping an enum constant without any equivalent
+     * to the enum of the given constant. Without fallback it's mapped to null, or a
+     * StrictModeException is thrown in strict mode.
+     * @param fallback The constant to use by default.
+     * @return The current mapper for chaining.
+     */
+    public Mapper enumFallback(Enum<?> fallback) {
+        checkNotFrozen();
+        enumTranslations.addFallback(fallback);
+        return this;
+    }
+
+    /**
+     * Declare an immutable type: its instances, and the ones of its subclasses, are given as is to
+     * the destination instead of being mapped, without looking for a custom mapper or a hook.
+     * JDK value types are already declared: BigDecimal, BigInteger, UUID, URI, Locale, Currency
+     * and the java.time types.
+     * @param type The immutable type.
+     * @return The current mapper for chaining.
+     */
+    public Mapper immutableType(Class<?> type) {
+        checkNotFrozen();
+        immutableTypes.add(type);
+        return this;
+    }
+
+    /**
+     * Add a converter, used when a getter of the source type matches a setter of the destination type.
+     * It replaces the built-in converter for these types if any: numbers, strings from and to numbers,
+     * booleans, UUIDs, enums and java.time types, dates from and to java.time types.
+     * @param sourceClass      The getter type.
+     * @param destinationClass The setter type.
+     * @param converter        The converter, only called with non null values.
+     * @return The current mapper for chaining.
+     */
+    public <S, D> Mapper converter(Class<S> sourceClass, Class<D> destinationClass, Converter<S, D> converter) {
+        checkNotFrozen();
+        converters.add(sourceClass, destinationClass, converter);
+        // Converters are bound to the properties of the plans
+        plans.clear();
+        return this;
+    }
+
+    /**
+     * Choose how the properties of the given class, and of its subclasses, are discovered
+     * when it's mapped from or to another class. Use the fields for classes which have
+     * public fields, or no getters and setters.
+     * @param type   The class.
+     * @param access {@link PropertyAccess#METHODS} by default.
+     * @return The current mapper for chaining.
+     */
+    public Mapper propertyAccess(Class<?> type, PropertyAccess access) {
+        checkNotFrozen();
+        propertyAccess.put(type, access);
+        plans.clear();
+        return this;
+    }
+
+    /**
+     * Add a collection factory to create the destination collections and maps, for example
+     * to use primitive-specialized collections. Factories are tried in the order they were
+     * added, then the default one: it creates presized collections of the same kind as the
+     * source (sorted, ordered, enum set...) or of the type declared by the destination.
+     * @param collectionFactory The factory, returning null for the types it doesn't handle.
+     * @return The current mapper for chaining.
+     */
+    public Mapper collectionFactory(CollectionFactory collectionFactory) {
+        checkNotFrozen();
+        collectionFactories.add(collectionFactory);
+        return this;
+    }
+
+    /**
+     * Get a mapper bound to the given pair of classes, for the pairs mapped very often.
+     * Everything which only depends on the classes is resolved once, when the typed mapper
+     * is created: it must be created once this mapper is configured. Keep it and reuse it,
+     * it's thread-safe.
+     * @param sourceClass      The source class, instances of its subclasses are mapped the usual way.
+     * @param destinationClass The destination class.
+     * @return The typed mapper.
+     */
+    public <S, D> TypedMapper<S, D> forTypes(Class<S> sourceClass, Class<D> destinationClass) {
+        return new TypedMapper<S, D>(this, sourceClass, destinationClass);
+    }
+
+    /**
+     * Resolve ahead of the first mapping everything needed to map the source class into the destination
+     * class: getters and setters, custom mappers and hooks, for the classes themselves and all the classes
+     * reachable from them (properties, elements of collections and maps, subclasses registered with
+     * {@link #mapping(Class, Class)}). Useful to warm the mapper up before serving requests.
+     * @return The number of plans resolved and the time spent, also logged at debug level.
+     */
+    public PrecompilationReport precompile(Class<?> sourceClass, Class<?> destinationClass) {
+        long start = System.nanoTime();
+        Set<MappingPlan.Key> visited = new HashSet<MappingPlan.Key>();
+        precompile(sourceClass, destinationClass, new MappingContext(mappings), visited);
+        PrecompilationReport report = new PrecompilationReport(visited.size(), (System.nanoTime() - start) / 1000000);
+        logger.debug("{} -> {}: {}", sourceClass.getSimpleName(), destinationClass.getSimpleName(), report);
+        return report;
+    }
+
+    /** Same as {@link #precompile(Class, Class)} for all the pairs registered with {@link #mapping(Class, Class)}. */
+    public PrecompilationReport precompile() {
+        long start = System.nanoTime();
+        Set<MappingPlan.Key> visited = new HashSet<MappingPlan.Key>();
+        MappingContext context = new MappingContext(mappings);
+        for (Map.Entry<Class<?>, Class<?>> mapping : mappings.entrySet()) {
+            precompile(mapping.getKey(), mapping.getValue(), context, visited);
+        }
+        PrecompilationReport report = new PrecompilationReport(visited.size(), (System.nanoTime() - start) / 1000000);
+        logger.debug("{}", report);
+        return report;
+    }
+
     /**
      * Map the source object with the destination class using the getters/setters.
      * This method is thread-safe.
@@ -163,6 +500,73 @@ public final class Mapper {
         return nominalMap(source, destinationClass, context);
     }
 
+    /**
+     * Same as {@link #map(Object, Class)}, but only maps the properties of the projection.
+     * The properties left out are not read from the source and stay null in the destination.
+     * The pruned plans are compiled once for each projection and cached.
+     * @param source           The source object.
+     * @param destinationClass The destination class.
+     * @param projection       The properties to map.
+     * @return A destination instance filled with the projected properties.
+     */
+    public <D> D project(Object source, Class<D> destinationClass, Projection projection) {
+        MappingContext context = newContext();
+        context.setProjection(projection);
+        return nominalMap(source, destinationClass, context);
+    }
+
+    /** Same as {@link #project(Object, Class, Projection)}, but applies to collections. */
+    @SuppressWarnings("unchecked")
+    public <D, U, CU extends Collection<U>, CD extends Collection<D>>
+    CD project(CU source, Class<D> destinationClass, Projection projection) {
+        // Always sequential, the projection is tracked by the context
+        MappingContext context = newContext();
+        context.setProjection(projection);
+        return (CD) mapCollection(source, Collection.class, destinationClass, context);
+    }
+
+    /**
+     * Map the source object into an existing destination instance, instead of creating a new one.
+     * The nested objects, collections and maps already present in the destination are reused and
+     * updated the same way when they are of the expected type: refreshing a destination graph
+     * mostly allocates the new elements. The properties which are null in the source are set to null,
+     * nested objects mapped by a generated mapper are not reused.
+     * This method is thread-safe, as long as the destination isn't used by other threads.
+     * @param source      The source object.
+     * @param destination The destination instance, updated using its setters and the source getters.
+     * @return The destination instance.
+     */
+    public <D> D map(Object source, D destination) {
+        if (source == null) return destination;
+        if (destination == null || !isBean(source.getClass()) || !isBean(destination.getClass())) {
+            throw new IllegalArgumentException("Unable to map " + source.getClass().getCanonicalName()
+                    + " into " + (destination == null ? null : destination.getClass().getCanonicalName())
+                    + ", only beans can be mapped into an existing instance.");
+        }
+        return mapInto(source, destination, newContext());
+    }
+
+    /**
+     * Same as {@link #map(Object, Object)}, but only the properties whose mapped value differs
+     * from the current one are written. Values are compared with equals(), nested objects are
+     * compared property by property, and so are the elements of lists and the values of maps
+     * which keep the same size and keys.
+     * @param source      The source object.
+     * @param destination The destination instance to update.
+     * @return The properties which have been written, with their old and new values.
+     */
+    public ChangeSet mapChanges(Object source, Object destination) {
+        ChangeSet changes = new ChangeSet();
+        if (source == null) return changes;
+        if (destination == null || !isBean(source.getClass()) || !isBean(destination.getClass())) {
+            throw new IllegalArgumentException("Unable to map " + source.getClass().getCanonicalName()
+                    + " into " + (destination == null ? null : destination.getClass().getCanonicalName())
+                    + ", only beans can be mapped into an existing instance.");
+        }
+        mapChanges(source, destination, "", newContext(), changes);
+        return changes;
+    }
+
     /** Same as {@link #map(Object, Class)}, but applies to collections. */
     public <D, U, CU extends Collection<U>, CD extends Collection<D>>
     CD map(CU source, Class<D> destinationClass) {
@@ -171,7 +575,10 @@ public final class Mapper {
 
     /** Same as {@link #map(Object, Class)}, but applies to collections. */
     public <D, U, CU extends Collection<U>, CD extends Collection<D>> CD map(CU source, Class<D> destinationClass, MappingContext mappingContext) {
-        return mapCollection(source, destinationClass, new MappingContext(mappingContext, mappings));
+        if (source != null && isParallel(source.size())) {
+            return mapCollectionInParallel(source, destinationClass, new MappingContext(mappingContext, mappings, true));
+        }
+        return mapCollection(source, Collection.class, destinationClass, new MappingContext(mappingContext, mappings));
     }
 
     /** Same as {@link #map(Object, Class)}, but applies to map objects. */
@@ -181,26 +588,100 @@ public final class Mapper {
 
     /** Same as {@link #map(Object, Class)}, but applies to map objects. */
     public <KS, VS, KD, VD> Map<KD, VD> map(Map<KS, VS> source, Class<KD> destinationKeyClass, Class<VD> destinationValueClass, MappingContext mappingContext) {
-        return mapMap(source, destinationKeyClass, destinationValueClass, new MappingContext(mappingContext, mappings));
+        if (source != null && isParallel(source.size())) {
+            return mapMapInParallel(source, destinationKeyClass, destinationValueClass,
+                    new MappingContext(mappingContext, mappings, true));
+        }
+        return mapMap(source, Map.class, destinationKeyClass, destinationValueClass, new MappingContext(mappingContext, mappings));
+    }
+
+    /**
+     * Create a collector mapping the elements of a stream into a list, using the getters/setters.
+     * Parallel streams are supported, objects shared between elements are still mapped only once.
+     * Use a new collector for each stream, it holds the mapping context of the stream.
+     * <pre>
+     * List&lt;BookDTO&gt; books = bookList.parallelStream().collect(mapper.toList(BookDTO.class));
+     * </pre>
+     * @param destinationClass The destination class of the elements.
+     * @return A collector producing a list of destination instances.
+     */
+    public <D> Collector<Object, ?, List<D>> toList(final Class<D> destinationClass) {
+        final MappingContext context = new MappingContext(null, mappings, true);
+        return Collector.of(
+                new Supplier<List<D>>() {
+                    @Override
+                    public List<D> get() {
+                        return new ArrayList<D>();
+                    }
+                },
+                new BiConsumer<List<D>, Object>() {
+                    @Override
+                    public void accept(List<D> out, Object source) {
+                        D mappedElement = nominalMap(source, destinationClass, context);
+                        if (mappedElement != null) out.add(mappedElement);
+                    }
+                },
+                new BinaryOperator<List<D>>() {
+                    @Override
+                    public List<D> apply(List<D> left, List<D> right) {
+                        left.addAll(right);
+                        return left;
+                    }
+                });
+    }
+
+    /**
+     * Map the elements of the iterator lazily, as they are consumed. Each element is mapped with
+     * its own mapping context, released once the element is mapped, so the memory used doesn't
+     * depend on the number of elements. Elements mapped to null are skipped.
+     * @param source           The source iterator.
+     * @param destinationClass The destination class of the elements.
+     * @return An iterator over the destination instances.
+     */
+    public <D> Iterator<D> mapIterator(Iterator<?> source, Class<D> destinationClass) {
+        return mapIterator(source, destinationClass, 1);
+    }
+
+    /**
+     * Same as {@link #mapIterator(Iterator, Class)}, but the mapping context is shared by windows
+     * of consecutive elements: objects shared between the elements of a window are mapped only once.
+     * @param window The number of consecutive elements sharing a mapping context.
+     */
+    public <D> Iterator<D> mapIterator(Iterator<?> source, Class<D> destinationClass, int window) {
+        return new MappingIterator<D>(source, destinationClass, window);
+    }
+
+    /**
+     * Same as {@link #mapIterator(Iterator, Class)}, for a stream. The resulting stream is sequential,
+     * closing it closes the source stream.
+     */
+    public <D> Stream<D> mapStream(Stream<?> source, Class<D> destinationClass) {
+        return mapStream(source, destinationClass, 1);
+    }
+
+    /** Same as {@link #mapIterator(Iterator, Class, int)}, for a stream. */
+    public <D> Stream<D> mapStream(final Stream<?> source, Class<D> destinationClass, int window) {
+        Iterator<D> iterator = mapIterator(source.iterator(), destinationClass, window);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator,
+                Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(new Runnable() {
+                    @Override
+                    public void run() {
+                        source.close();
+                    }
+                });
     }
 
+    /**
+     * @param collectionClass  The declared type of the destination collection.
+     * @param destinationClass The destination class of the elements.
+     */
     @SuppressWarnings("unchecked")
 	private <D, U, CD extends Collection<D>, CU extends Collection<U>>
-    CD mapCollection(CU source, Class<D> destinationClass, MappingContext context) {
+    CD mapCollection(CU source, Class<?> collectionClass, Class<D> destinationClass, MappingContext context) {
         if (source == null) return null;
-        // Instantiate the same type as the source
-        CD out;
-        if (source instanceof Set) {
-            out = (CD) new HashSet<D>();
-        } else if (source instanceof List) {
-            out = (CD) new ArrayList<D>();
-        } else if (source instanceof Queue) {
-            out = (CD) new LinkedList<D>();
-        } else {
-            if (strictMode) {
-                throw new StrictModeException("Unhandler type " + source.getClass().getName());
-            } else return null;
-        }
+        CD out = (CD) newCollection(source, collectionClass, destinationClass, source.size());
+        if (out == null) return null;
         for (Object s : source) {
             final D mappedElement = nominalMap(s, destinationClass, context);
             if (mappedElement != null) out.add(mappedElement);
@@ -208,39 +689,214 @@ public final class Mapper {
         return out;
     }
 
-    private <KS, VS, KD, VD> Map<KD, VD> mapMap(Map<KS, VS> source, Class<KD> keyClass, Class<VD> valueClass, MappingContext context) {
+    /** Instantiate the destination collection using the collection factories, or null if not handled. */
+    private Collection<Object> newCollection(Object source, Class<?> collectionClass, Class<?> elementClass, int size) {
+        Collection<Object> out = collectionFactories.newCollection(source, collectionClass, elementClass, size);
+        if (out == null && settings.strictMode) {
+            throw new StrictModeException("Unhandler type " + collectionClass.getName());
+        }
+        return out;
+    }
+
+    /** Instantiate the destination map using the collection factories, or null if not handled. */
+    private Map<Object, Object> newMap(Map<?, ?> source, Class<?> mapClass, Class<?> keyClass) {
+        Map<Object, Object> out = collectionFactories.newMap(source, mapClass, keyClass, source.size());
+        if (out == null && settings.strictMode) {
+            throw new StrictModeException("Unhandler type " + mapClass.getName());
+        }
+        return out;
+    }
+
+    /** Map an array into an array, or into a collection of the element type given by the field. */
+    private Object mapArray(Object source, Type field, Class<?> destinationClass, MappingContext context) {
+        int length = Array.getLength(source);
+        Class<?> sourceComponent = source.getClass().getComponentType();
+
+        if (Collection.class.isAssignableFrom(destinationClass)) {
+            Collection<Object> out = newCollection(source, destinationClass, rawClass(typeArgument(field, 0)), length);
+            if (out == null) return null;
+            Type elementType = typeArgument(field, 0);
+            Class<?> elementClass = rawClass(elementType);
+            for (int i = 0; i < length; i++) {
+                Object element = Array.get(source, i);
+                // Without a known element type, elements are added as is
+                Object mappedElement = elementClass == null ? element
+                        : nominalMap(element, elementType, elementClass, context);
+                if (mappedElement != null) out.add(mappedElement);
+            }
+            return out;
+        }
+
+        if (!destinationClass.isArray()) {
+            if (settings.strictMode) {
+                throw new StrictModeException("Unable to map "
+                        + source.getClass().getCanonicalName()
+                        + " -> " + destinationClass.getCanonicalName());
+            } else return null;
+        }
+
+        Class<?> destinationComponent = destinationClass.getComponentType();
+        Object out = Array.newInstance(destinationComponent, length);
+
+        // Primitives and immutable objects don't need to be mapped, copy them in bulk
+        if (sourceComponent.isPrimitive() ? sourceComponent == destinationComponent
+                : (isNativeType(sourceComponent) || immutableTypes.contains(sourceComponent))
+                && destinationComponent.isAssignableFrom(sourceComponent)) {
+            System.arraycopy(source, 0, out, 0, length);
+            return out;
+        }
+
+        // Different primitive types, Array.set() widens the values when possible
+        if (sourceComponent.isPrimitive() && destinationComponent.isPrimitive()) {
+            try {
+                for (int i = 0; i < length; i++) {
+                    Array.set(out, i, Array.get(source, i));
+                }
+                return out;
+            } catch (IllegalArgumentException e) {
+                if (settings.strictMode) {
+                    throw new StrictModeException("Unable to map "
+                            + source.getClass().getCanonicalName()
+                            + " -> " + destinationClass.getCanonicalName());
+                } else return null;
+            }
+        }
+
+        Type componentType = field instanceof GenericArrayType
+                ? ((GenericArrayType) field).getGenericComponentType() : destinationComponent;
+        for (int i = 0; i < length; i++) {
+            Object mappedElement = nominalMap(Array.get(source, i), componentType, destinationComponent, context);
+            if (mappedElement != null || !destinationComponent.isPrimitive()) Array.set(out, i, mappedElement);
+        }
+        return out;
+    }
+
+    /** Map a collection into an array, keeping the order of the elements. */
+    private Object mapCollectionToArray(Collection<?> source, Type field, Class<?> destinationClass, MappingContext context) {
+        Class<?> destinationComponent = destinationClass.getComponentType();
+        Type componentType = field instanceof GenericArrayType
+                ? ((GenericArrayType) field).getGenericComponentType() : destinationComponent;
+        Object out = Array.newInstance(destinationComponent, source.size());
+        int i = 0;
+        for (Object element : source) {
+            Object mappedElement = nominalMap(element, componentType, destinationComponent, context);
+            if (mappedElement != null || !destinationComponent.isPrimitive()) Array.set(out, i, mappedElement);
+            i++;
+        }
+        return out;
+    }
+
+    private boolean isParallel(int size) {
+        return settings.parallelExecutor != null && size >= settings.parallelThreshold;
+    }
+
+    /** Same as mapCollection(), with the elements spread on the parallel executor. The order is kept. */
+    @SuppressWarnings("unchecked")
+    private <D, U, CD extends Collection<D>, CU extends Collection<U>>
+    CD mapCollectionInParallel(CU source, Class<D> destinationClass, MappingContext context) {
+        CD out = (CD) newCollection(source, Collection.class, destinationClass, source.size());
+        if (out == null) return null;
+        for (Object mappedElement : mapInParallel(new ArrayList<Object>(source), destinationClass, context)) {
+            if (mappedElement != null) out.add((D) mappedElement);
+        }
+        return out;
+    }
+
+    /** Same as mapMap(), with the keys and values spread on the parallel executor. */
+    @SuppressWarnings("unchecked")
+    private <KS, VS, KD, VD> Map<KD, VD> mapMapInParallel(Map<KS, VS> source, Class<KD> keyClass, Class<VD> valueClass, MappingContext context) {
+        List<Object> keys = new ArrayList<Object>(source.size());
+        List<Object> values = new ArrayList<Object>(source.size());
+        for (Map.Entry<KS, VS> entry : source.entrySet()) {
+            keys.add(entry.getKey());
+            values.add(entry.getValue());
+        }
+        Object[] mappedKeys = mapInParallel(keys, keyClass, context);
+        Object[] mappedValues = mapInParallel(values, valueClass, context);
+        Map<KD, VD> out = (Map<KD, VD>) newMap(source, Map.class, keyClass);
+        if (out == null) return null;
+        for (int i = 0; i < mappedKeys.length; i++) {
+            if (mappedKeys[i] == null && out instanceof EnumMap) continue;
+            out.put((KD) mappedKeys[i], (VD) mappedValues[i]);
+        }
+        return out;
+    }
+
+    /**
+     * Map the elements in chunks on the parallel executor.
+     * @param context A concurrent mapping context, shared by all the chunks.
+     * @return The mapped elements, at the same index as their source.
+     */
+    private Object[] mapInParallel(final List<Object> elements, final Class<?> destinationClass, final MappingContext context) {
+        final Object[] results = new Object[elements.size()];
+        int chunkCount = Math.min(elements.size(), 4 * Runtime.getRuntime().availableProcessors());
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(chunkCount);
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+            final int from = (int) ((long) elements.size() * chunk / chunkCount);
+            final int to = (int) ((long) elements.size() * (chunk + 1) / chunkCount);
+            tasks.add(new Callable<Void>() {
+                @Override
+                public Void call() {
+                    for (int i = from; i < to; i++) {
+                        results[i] = nominalMap(elements.get(i), destinationClass, context);
+                    }
+                    return null;
+                }
+            });
+        }
+
+        try {
+            for (Future<Void> future : settings.parallelExecutor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while mapping in parallel", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) throw (RuntimeException) cause;
+            if (cause instanceof Error) throw (Error) cause;
+            throw new RuntimeException(cause);
+        }
+        return results;
+    }
+
+    /** @param mapClass The declared type of the destination map. */
+    @SuppressWarnings("unchecked")
+    private <KS, VS, KD, VD> Map<KD, VD> mapMap(Map<KS, VS> source, Class<?> mapClass, Class<KD> keyClass, Class<VD> valueClass, MappingContext context) {
         if (source == null) return null;
-        Map<KD, VD> out = new HashMap<KD, VD>();
+        Map<KD, VD> out = (Map<KD, VD>) newMap(source, mapClass, keyClass);
+        if (out == null) return null;
         for (Map.Entry<KS, VS> s : source.entrySet()) {
             KD mappedKey = nominalMap(s.getKey(), keyClass, context);
+            // An EnumMap doesn't accept the null key of an enum constant which couldn't be mapped
+            if (mappedKey == null && out instanceof EnumMap) continue;
             VD mappedValue = nominalMap(s.getValue(), valueClass, context);
             out.put(mappedKey, mappedValue);
         }
         return out;
     }
 
+    @SuppressWarnings("unchecked")
     private <D> D mapEnum(Enum<?> source, Class<D> destinationClass, MappingContext context) {
         if (!destinationClass.isEnum()) {
-            if (strictMode)
+            if (settings.strictMode)
                 throw new StrictModeException("Unable to map "
                         + source.getClass().getCanonicalName()
                         + " -> " + destinationClass.getCanonicalName());
             return null;
         }
 
-        for (D constant : destinationClass.getEnumConstants()) {
-            if (((Enum<?>) constant).name().equals(source.name())) {
-                return constant;
-            }
-        }
-        if (strictMode)
+        D constant = (D) enumTranslations.translate(source, destinationClass);
+        if (constant != null) return constant;
+        if (settings.strictMode)
             throw new StrictModeException("Unable to map "
                     + source.getClass().getCanonicalName()
                     + " -> " + destinationClass.getCanonicalName());
         return null;
     }
 
-    private <D> D nominalMap(Object source, Class<D> destinationClass, MappingContext context) {
+    <D> D nominalMap(Object source, Class<D> destinationClass, MappingContext context) {
         // This is the entry point of the nominal mapping process.
         // Special cases directly provided by the user (lists, etc...) must have been processed before.
         return nominalMap(source, null, destinationClass, context);
@@ -250,42 +906,55 @@ public final class Mapper {
 	private <D> D nominalMap(Object source, Type field, Class<D> destinationClass, MappingContext context) {
         if (source == null) return null;
 
+        if (source instanceof Enum) {
+            return (D) mapEnum((Enum<?>) source, destinationClass, context);
+        }
+
+        // Immutable values can be shared by the source and the destination
+        if (immutableTypes.contains(source.getClass()) && destinationClass.isAssignableFrom(source.getClass())) {
+            return (D) source;
+        }
+
+        if (source.getClass().isArray()) {
+            return (D) mapArray(source, field, destinationClass, context);
+        }
+
+        if (source instanceof Collection && destinationClass.isArray()) {
+            return (D) mapCollectionToArray((Collection<?>) source, field, destinationClass, context);
+        }
+
         if (source instanceof Collection) {
             ParameterizedType type = (ParameterizedType) field;
-            return (D) mapCollection((Collection<?>) source, (Class<?>) type.getActualTypeArguments()[0], context);
+            return (D) mapCollection((Collection<?>) source, destinationClass,
+                    (Class<?>) type.getActualTypeArguments()[0], context);
         }
 
         if (source instanceof Map) {
             ParameterizedType type = (ParameterizedType) field;
-            return (D) mapMap((Map<?, ?>) source, (Class<?>) type.getActualTypeArguments()[0],
+            return (D) mapMap((Map<?, ?>) source, destinationClass, (Class<?>) type.getActualTypeArguments()[0],
                     (Class<?>) type.getActualTypeArguments()[1], context);
         }
 
-        if (source.getClass().isEnum()) {
-            return (D) mapEnum((Enum<?>) source, destinationClass, context);
-        }
-
         // First, use already existing if possible (prevents cyclic mapping)
-        D alreadyMapped = context.getAlreadyMapped(source);
-        if (alreadyMapped != null) {
-            return alreadyMapped;
+        if (!settings.treeMode) {
+            D alreadyMapped = context.getAlreadyMapped(source);
+            if (alreadyMapped != null) {
+                return alreadyMapped;
+            }
         }
 
-        // Try to find appropriate customMapper if any
-        CustomMapperResult<D> customMapperResult = MapperUtil.applyCustomMappers(customMappers, source, destinationClass, context);
-        if (customMapperResult.hasMatched) return customMapperResult.result;
-        
-        CustomMapperResult<D> customBiMapperResult = MapperUtil.applyCustomBiMappers(customBiMappers, source, destinationClass, context);
-        if (customBiMapperResult.hasMatched) return customBiMapperResult.result;
+        // Try to find appropriate customMapper if any, its result can be unboxed for a primitive destination
+        CustomMappers.Match customMapper = customMappers.find(source.getClass(), PropertyAccessors.boxed(destinationClass));
+        if (customMapper != CustomMappers.NONE) return (D) customMapper.map(source, context);
 
         // Map native types if possible
         D nativeMapped = mapPrimitiveTypeOrNull(source);
         if (nativeMapped != null) {
             if (isCompatiblePrimitiveType(nativeMapped, destinationClass)) {
-                applyHooks(hooks, source, destinationClass);
+                hooks.apply(source, destinationClass);
                 return nativeMapped;
             } else {
-                if (strictMode) {
+                if (settings.strictMode) {
                     throw new StrictModeException("Unable to map "
                             + nativeMapped.getClass().getCanonicalName()
                             + " -> " + destinationClass.getCanonicalName());
@@ -299,67 +968,927 @@ public final class Mapper {
 
         // Otherwise, create appropriate instance and store it in context
         Class<D> bestDestinationClass = findBestDestinationType(source.getClass(), destinationClass, context);
-        D destinationInstance = context.createInstanceForDestination(bestDestinationClass);
-        context.putAlreadyMapped(source, destinationInstance);
+        MappingPlan plan = getPlan(source.getClass(), bestDestinationClass);
+        if (context.getProjection() != null) plan = getProjectedPlan(plan, context.getProjection());
+        return mapBean(source, bestDestinationClass, plan, context);
+    }
 
-        for (Method setterMethod : findAllSetterMethods(bestDestinationClass)) {
+    /**
+     * Create the destination instance, store it in the context and copy the properties into it.
+     * @param destinationClass The class to instantiate, the best one for the source class.
+     * @param plan             The plan of the source class and the destination class.
+     */
+    <D> D mapBean(Object source, Class<D> destinationClass, MappingPlan plan, MappingContext context) {
+        D destinationInstance = context.createInstanceForDestination(destinationClass);
+        return fillBean(source, destinationInstance, plan, context, false);
+    }
+
+    /** Same as mapBean(), updating an existing destination instance. */
+    private <D> D mapInto(Object source, D destinationInstance, MappingContext context) {
+        return fillBean(source, destinationInstance, getPlan(source.getClass(), destinationInstance.getClass()), context, true);
+    }
+
+    /**
+     * Store the destination instance in the context and copy the properties into it.
+     * @param inPlace True to reuse the values already in the destination, see {@link #map(Object, Object)}.
+     */
+    private <D> D fillBean(Object source, D destinationInstance, MappingPlan plan, MappingContext context, boolean inPlace) {
+        if (!settings.treeMode) {
+            D registered = context.putAlreadyMappedIfAbsent(source, destinationInstance);
+            // Another thread of a parallel mapping has mapped the same source in the meantime
+            if (registered != destinationInstance) return registered;
+        } else if (settings.maxDepth > 0 && context.enter() > settings.maxDepth) {
+            // The context may be reused after the exception, leave it at the depth it was
+            context.exit();
+            throw new MaxDepthExceededException("Maximum depth of " + settings.maxDepth + " reached mapping "
+                    + source.getClass().getCanonicalName() + ", the model is probably cyclic, "
+                    + "it can't be mapped in tree mode.");
+        }
+
+        try {
+            if (plan.getGeneratedMapper() != null) {
+                plan.getGeneratedMapper().map(source, destinationInstance,
+                        new GeneratedMapperCallback(source, destinationInstance.getClass(), context));
+            } else {
+                mapProperties(source, destinationInstance, plan, context, inPlace);
+            }
+        } finally {
+            if (settings.treeMode && settings.maxDepth > 0) context.exit();
+        }
+
+        hooks.apply(source, destinationInstance);
+        return destinationInstance;
+    }
+
+    /**
+     * Copy all the properties of the plan from the source to the destination, using reflection.
+     * @param inPlace True to reuse the values already in the destination, and to write the null values.
+     */
+    private void mapProperties(Object source, Object destinationInstance, MappingPlan plan, MappingContext context,
+                               boolean inPlace) {
+        for (MappingPlan.PropertyMapping property : plan.getProperties()) {
 
-            Method getterMethod = findGetter(source, setterMethod, knownSuffixes);
+            Member setter = property.getSetter();
+            Member getter = property.getGetter();
 
-            if (getterMethod == null) {
-                if (strictMode) {
+            if (getter == null) {
+                if (settings.strictMode) {
                     throw new StrictModeException("No suitable getter for "
-                            + setterMethod.getDeclaringClass().getSimpleName()
-                            + "." + setterMethod.getName() + "() method in "
+                            + describe(setter) + " in "
                             + source.getClass().getCanonicalName());
                 } else {
-                    logger.debug("No getter found for {}.{}() in {}, ignore...",
-                            setterMethod.getDeclaringClass().getSimpleName(),
-                            setterMethod.getName(),
-                            bestDestinationClass.getSimpleName());
+                    logger.debug("No getter found for {} in {}, ignore...",
+                            describe(setter),
+                            plan.getDestinationClass().getSimpleName());
                     continue;
                 }
             }
 
-            logger.debug("{}.{}() -> {}.{}()",
-                    getterMethod.getDeclaringClass().getSimpleName(),
-                    getterMethod.getName(),
-                    setterMethod.getDeclaringClass().getSimpleName(),
-                    setterMethod.getName());
+            if (logger.isDebugEnabled()) {
+                logger.debug("{} -> {}", describe(getter), describe(setter));
+            }
 
             try {
 
-                Object objectBeingTransferred = getterMethod.invoke(source);
+                // Copy the value without boxing it, the plan has no copier if a custom mapper handles its boxed type
+                if (property.getPrimitiveCopier() != null) {
+                    property.getPrimitiveCopier().copy(source, destinationInstance);
+                    continue;
+                }
+
+                if (property.getConverter() != null) {
+                    Object value = property.get(source);
+                    if (value != null) property.set(destinationInstance, property.getConverter().convert(value));
+                    else if (inPlace && !property.getParameterType().isPrimitive()) property.set(destinationInstance, null);
+                    continue;
+                }
+
+                Object objectBeingTransferred = property.get(source);
 
                 if (objectBeingTransferred == null) {
+                    if (inPlace && !property.getParameterType().isPrimitive()) property.set(destinationInstance, null);
+                    continue;
+                }
+
+                if (inPlace && mapIntoCurrentValue(objectBeingTransferred, destinationInstance, property, context)) {
                     continue;
                 }
 
                 // NOTE This is a recursive call, but the stack is unlikely to explode
                 // because the cyclic dependencies are managed, and the depth of a model
                 // isn't supposed to get that high.
-                Object mappedObjectBeingTransferred = nominalMap(objectBeingTransferred,
-                        setterMethod.getGenericParameterTypes()[0],
-                        setterMethod.getParameterTypes()[0],
-                        context);
+                Projection projection = context.getProjection();
+                if (projection != null) context.setProjection(projection.child(property.getName()));
+                Object mappedObjectBeingTransferred;
+                try {
+                    if (settings.lazyMode && !inPlace && isLazy(objectBeingTransferred, property, context)) {
+                        mappedObjectBeingTransferred = lazyProxy(objectBeingTransferred, property, context);
+                    } else {
+                        mappedObjectBeingTransferred = nominalMap(objectBeingTransferred,
+                                property.getGenericParameterType(),
+                                property.getParameterType(),
+                                context);
+                    }
+                } finally {
+                    if (projection != null) context.setProjection(projection);
+                }
 
                 // Apply setter
-                setterMethod.invoke(destinationInstance, mappedObjectBeingTransferred);
+                property.set(destinationInstance, mappedObjectBeingTransferred);
 
+            } catch (MaxDepthExceededException e) {
+                throw e;
             } catch (Exception e) {
-                if (strictMode) {
+                if (settings.strictMode) {
                     throw new StrictModeException("Unable to map "
-                            + setterMethod.getDeclaringClass().getSimpleName()
-                            + "." + setterMethod.getName() + "() method in "
+                            + describe(setter) + " in "
                             + source.getClass().getCanonicalName(), e);
                 }
             }
         }
+    }
 
-        applyHooks(hooks, source, destinationInstance);
-        return destinationInstance;
+    /** @return True if the value of the property can be mapped on first use, see {@link #lazyMode(boolean)}. */
+    private boolean isLazy(Object source, MappingPlan.PropertyMapping property, MappingContext context) {
+        if (!property.getParameterType().isInterface()) return false;
+        if (!(source instanceof Collection) && !(source instanceof Map) && !isBean(source.getClass())) return false;
+        // Sources already mapped keep their destination
+        return settings.treeMode || context.getAlreadyMapped(source) == null;
+    }
+
+    /**
+     * Create the proxy mapping the value of the property on first use. The value is mapped with
+     * the context of the current call, so the objects mapped so far are reused, and with the
+     * projection of the property.
+     */
+    private Object lazyProxy(final Object source, final MappingPlan.PropertyMapping property,
+                             final MappingContext context) {
+        final Projection projection = context.getProjection();
+        return LazyValue.proxy(property.getParameterType(), context, new Supplier<Object>() {
+            @Override
+            public Object get() {
+                Projection current = context.getProjection();
+                context.setProjection(projection);
+                try {
+                    return nominalMap(source, property.getGenericParameterType(), property.getParameterType(), context);
+                } finally {
+                    context.setProjection(current);
+                }
+            }
+        });
+    }
+
+    /**
+     * Write the properties of the destination which have changed, see {@link #mapChanges(Object, Object)}.
+     * @param path The path of the destination, empty for the root.
+     */
+    private void mapChanges(Object source, Object destination, String path, MappingContext context, ChangeSet changes) {
+        if (!settings.treeMode) context.putAlreadyMapped(source, destination);
+        // The generated code writes everything, compare with the properties of a reflective plan
+        MappingPlan plan = getReflectivePlan(source.getClass(), destination.getClass());
+
+        for (MappingPlan.PropertyMapping property : plan.getProperties()) {
+            if (property.getGetter() == null) {
+                if (settings.strictMode) {
+                    throw new StrictModeException("No suitable getter for "
+                            + describe(property.getSetter()) + " in "
+                            + source.getClass().getCanonicalName());
+                }
+                continue;
+            }
+
+            try {
+                mapPropertyChanges(source, destination, property, path, context, changes);
+            } catch (Exception e) {
+                if (settings.strictMode) {
+                    throw new StrictModeException("Unable to map "
+                            + describe(property.getSetter()) + " in "
+                            + source.getClass().getCanonicalName(), e);
+                }
+            }
+        }
+
+        hooks.apply(source, destination);
+    }
+
+    private void mapPropertyChanges(Object source, Object destination, MappingPlan.PropertyMapping property,
+                                    String path, MappingContext context, ChangeSet changes) {
+        Object value = property.get(source);
+        Object current = property.getCurrent(destination);
+        if (value == null && property.getParameterType().isPrimitive()) return;
+
+        Object mapped;
+        if (value == null) {
+            mapped = null;
+        } else if (property.getConverter() != null) {
+            mapped = property.getConverter().convert(value);
+        } else if (property.getPrimitiveCopier() != null) {
+            if (isSameValue(value, current)) return;
+            property.getPrimitiveCopier().copy(source, destination);
+            changes.add(path(path, property.getName()), current, property.getCurrent(destination));
+            return;
+        } else if (canMapInto(value, current, property.getParameterType(), context)) {
+            mapChanges(value, current, path(path, property.getName()), context, changes);
+            return;
+        } else if (mapElementChanges(value, current, property.getGenericParameterType(),
+                path(path, property.getName()), context, changes)) {
+            return;
+        } else if (current instanceof Collection || current instanceof Map) {
+            // Refill the current collection, its elements are updated in place when possible
+            Object snapshot = current instanceof Collection
+                    ? new ArrayList<Object>((Collection<?>) current)
+                    : new HashMap<Object, Object>((Map<?, ?>) current);
+            if (mapIntoCurrentValue(value, destination, property, context)) {
+                Object updated = current instanceof Collection ? new ArrayList<Object>((Collection<?>) current) : current;
+                if (!isSameValue(updated, snapshot)) changes.add(path(path, property.getName()), snapshot, current);
+                return;
+            }
+            mapped = nominalMap(value, property.getGenericParameterType(), property.getParameterType(), context);
+        } else {
+            mapped = nominalMap(value, property.getGenericParameterType(), property.getParameterType(), context);
+        }
+
+        if (isSameValue(mapped, current)) return;
+        property.set(destination, mapped);
+        changes.add(path(path, property.getName()), current, mapped);
+    }
+
+    /**
+     * Compare the elements of a list of the same size, or the values of a map with the same keys,
+     * and write the ones which have changed.
+     * @return False if the elements can't be compared one by one, the whole value must be mapped then.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean mapElementChanges(Object source, Object current, Type type, String path,
+                                      MappingContext context, ChangeSet changes) {
+        if (!(type instanceof ParameterizedType)) return false;
+        Type[] typeArguments = ((ParameterizedType) type).getActualTypeArguments();
+
+        if (source instanceof List && current instanceof List && typeArguments[0] instanceof Class) {
+            List<?> sourceList = (List<?>) source;
+            List<Object> currentList = (List<Object>) current;
+            if (sourceList.size() != currentList.size() || sourceList.contains(null)) return false;
+            for (int i = 0; i < sourceList.size(); i++) {
+                mapElementChanges(sourceList.get(i), currentList.get(i), (Class<?>) typeArguments[0],
+                        path + '[' + i + ']', context, changes, currentList, i);
+            }
+            return true;
+        }
+
+        if (source instanceof Collection && current instanceof Set && typeArguments[0] instanceof Class) {
+            // Elements of a set have no index, the set is only refilled if some don't match any current element
+            Visited matched = new Visited();
+            if (!isSameSet((Collection<?>) source, (Set<?>) current, typeArguments[0], context, matched)) return false;
+            if (!settings.treeMode) {
+                for (Map.Entry<Object, Object> mapping : matched.entries()) {
+                    context.putAlreadyMapped(mapping.getKey(), mapping.getValue());
+                }
+            }
+            return true;
+        }
+
+        if (source instanceof Map && current instanceof Map
+                && typeArguments[0] instanceof Class && typeArguments[1] instanceof Class) {
+            Map<?, ?> sourceMap = (Map<?, ?>) source;
+            Map<Object, Object> currentMap = (Map<Object, Object>) current;
+            if (sourceMap.size() != currentMap.size()) return false;
+            List<Object> keys = new ArrayList<Object>(sourceMap.size());
+            for (Object key : sourceMap.keySet()) {
+                Object mappedKey = nominalMap(key, (Class<?>) typeArguments[0], context);
+                if (mappedKey == null || !currentMap.containsKey(mappedKey)) return false;
+                keys.add(mappedKey);
+            }
+            int i = 0;
+            for (Object value : sourceMap.values()) {
+                Object key = keys.get(i++);
+                mapElementChanges(value, currentMap.get(key), (Class<?>) typeArguments[1],
+                        path + '[' + key + ']', context, changes, currentMap, key);
+            }
+            return true;
+        }
+        return false;
     }
 
+    /** Write the element of a list (the key is its index) or the value of a map if it has changed. */
+    @SuppressWarnings("unchecked")
+    private void mapElementChanges(Object source, Object current, Class<?> elementClass, String path,
+                                   MappingContext context, ChangeSet changes, Object container, Object key) {
+        if (canMapInto(source, current, elementClass, context)) {
+            mapChanges(source, current, path, context, changes);
+            return;
+        }
+        Object mapped = source == null ? null : nominalMap(source, elementClass, context);
+        if (isSameValue(mapped, current)) return;
+        if (container instanceof List) ((List<Object>) container).set((Integer) key, mapped);
+        else ((Map<Object, Object>) container).put(key, mapped);
+        changes.add(path, current, mapped);
+    }
+
+    /**
+     * Match each element of the source with an element of the current set, without modifying anything.
+     * A bean is first matched with its already mapped counterpart, or with the current element equal to it,
+     * the remaining ones are compared with each unmatched element.
+     * @param visited The beans compared so far, source -> current, the matched ones are added.
+     * @return True if the current set already holds the mapping of each source element.
+     */
+    private boolean isSameSet(Collection<?> source, Set<?> current, Type elementType, MappingContext context,
+                              Visited visited) {
+        Class<?> elementClass = rawClass(elementType);
+        if (elementClass == null || source.size() != current.size()) return false;
+        // Current element -> itself, to get the current element equal to a given one
+        Map<Object, Object> unmatched = new HashMap<Object, Object>(current.size() * 2);
+        for (Object element : current) unmatched.put(element, element);
+        List<Object> leftovers = new ArrayList<Object>();
+        for (Object element : source) {
+            if (element == null) return false;
+            if (!isBean(element.getClass())) {
+                Object mapped = nominalMap(element, elementType, elementClass, context);
+                if (mapped == null || unmatched.remove(mapped) == null) return false;
+                continue;
+            }
+            Object counterpart = settings.treeMode ? null : context.getAlreadyMapped(element);
+            if (counterpart == null) counterpart = visited.get(element);
+            if (counterpart != null) {
+                // Nothing else than the counterpart can match the element
+                if (unmatched.get(counterpart) != counterpart) return false;
+                unmatched.remove(counterpart);
+                continue;
+            }
+            Object equal = unmatched.get(element);
+            if (equal != null) {
+                int mark = visited.mark();
+                if (isSameMapping(element, equal, elementType, context, visited)) {
+                    unmatched.remove(equal);
+                    continue;
+                }
+                visited.rollback(mark);
+            }
+            leftovers.add(element);
+        }
+        for (Object element : leftovers) {
+            boolean found = false;
+            for (Iterator<Object> candidates = unmatched.keySet().iterator(); candidates.hasNext() && !found; ) {
+                int mark = visited.mark();
+                if (isSameMapping(element, candidates.next(), elementType, context, visited)) {
+                    candidates.remove();
+                    found = true;
+                } else {
+                    visited.rollback(mark);
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Compare the source with the current value, property by property for beans, element by element
+     * for collections and maps, without modifying anything.
+     * @param visited The beans being compared, source -> current, for the cyclic dependencies.
+     * @return True if mapping the source into the current value wouldn't change it.
+     */
+    private boolean isSameMapping(Object source, Object current, Type type, MappingContext context,
+                                  Visited visited) {
+        if (source == null || current == null) return source == current;
+        Class<?> destinationClass = rawClass(type);
+        if (destinationClass == null) return false;
+        if (!settings.treeMode) {
+            Object alreadyMapped = context.getAlreadyMapped(source);
+            if (alreadyMapped != null) return alreadyMapped == current;
+        }
+        Object compared = visited.get(source);
+        if (compared != null) return compared == current;
+
+        if (source instanceof Collection && current instanceof Collection) {
+            Type elementType = typeArgument(type, 0);
+            if (current instanceof Set) return isSameSet((Collection<?>) source, (Set<?>) current, elementType, context, visited);
+            if (!(source instanceof List) || !(current instanceof List)) return false;
+            List<?> sourceList = (List<?>) source;
+            List<?> currentList = (List<?>) current;
+            if (sourceList.size() != currentList.size()) return false;
+            for (int i = 0; i < sourceList.size(); i++) {
+                if (!isSameMapping(sourceList.get(i), currentList.get(i), elementType, context, visited)) return false;
+            }
+            return true;
+        }
+
+        if (source instanceof Map && current instanceof Map) {
+            Class<?> keyClass = rawClass(typeArgument(type, 0));
+            Map<?, ?> sourceMap = (Map<?, ?>) source;
+            Map<?, ?> currentMap = (Map<?, ?>) current;
+            if (keyClass == null || sourceMap.size() != currentMap.size()) return false;
+            for (Map.Entry<?, ?> entry : sourceMap.entrySet()) {
+                Object mappedKey = nominalMap(entry.getKey(), keyClass, context);
+                if (mappedKey == null || !currentMap.containsKey(mappedKey)) return false;
+                if (!isSameMapping(entry.getValue(), currentMap.get(mappedKey), typeArgument(type, 1), context, visited)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        if (isBean(source.getClass())) {
+            if (!canMapInto(source, current, destinationClass, context)) return false;
+            visited.put(source, current);
+            for (MappingPlan.PropertyMapping property : getReflectivePlan(source.getClass(), current.getClass()).getProperties()) {
+                if (property.getGetter() == null) continue;
+                Object value = property.get(source);
+                Object currentValue = property.getCurrent(current);
+                if (property.getConverter() != null) {
+                    if (!isSameValue(value == null ? null : property.getConverter().convert(value), currentValue)) return false;
+                } else if (property.getPrimitiveCopier() != null) {
+                    if (!isSameValue(value, currentValue)) return false;
+                } else if (!isSameMapping(value, currentValue, property.getGenericParameterType(), context, visited)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // Other values hold no state to compare, map them the usual way
+        return isSameValue(nominalMap(source, type, destinationClass, context), current);
+    }
+
+    private static String path(String parent, String name) {
+        return parent.isEmpty() ? name : parent + '.' + name;
+    }
+
+    /** Same as equals(), where numbers widened from one type to another are the same. */
+    private static boolean isSameValue(Object value, Object current) {
+        if (value == current) return true;
+        if (value == null || current == null) return false;
+        if (value instanceof Number && current instanceof Number && value.getClass() != current.getClass()) {
+            if (value instanceof Float || value instanceof Double || current instanceof Float || current instanceof Double) {
+                return ((Number) value).doubleValue() == ((Number) current).doubleValue();
+            }
+            return ((Number) value).longValue() == ((Number) current).longValue();
+        }
+        return value.equals(current);
+    }
+
+    /**
+     * Update the value the destination property already has, without calling the setter.
+     * @return False if there is no value, or if it can't be updated.
+     */
+    @SuppressWarnings("unchecked")
+    private boolean mapIntoCurrentValue(Object source, Object destinationInstance,
+                                        MappingPlan.PropertyMapping property, MappingContext context) {
+        Object current = property.getCurrent(destinationInstance);
+        if (current == null) return false;
+
+        Type type = property.getGenericParameterType();
+        if (source instanceof Collection && current instanceof Collection && type instanceof ParameterizedType) {
+            Type elementType = ((ParameterizedType) type).getActualTypeArguments()[0];
+            return elementType instanceof Class && mapCollectionInto((Collection<?>) source,
+                    (Collection<Object>) current, (Class<?>) elementType, context);
+        }
+
+        if (source instanceof Map && current instanceof Map && type instanceof ParameterizedType) {
+            Type keyType = ((ParameterizedType) type).getActualTypeArguments()[0];
+            Type valueType = ((ParameterizedType) type).getActualTypeArguments()[1];
+            return keyType instanceof Class && valueType instanceof Class && mapMapInto((Map<?, ?>) source,
+                    (Map<Object, Object>) current, (Class<?>) keyType, (Class<?>) valueType, context);
+        }
+
+        if (!canMapInto(source, current, property.getParameterType(), context)) return false;
+        mapInto(source, current, context);
+        return true;
+    }
+
+    /**
+     * @return True if the source would be mapped as a bean to an instance of the class of the
+     * current destination value, which can then be updated instead.
+     */
+    private boolean canMapInto(Object source, Object current, Class<?> destinationClass, MappingContext context) {
+        if (current == null || !isBean(source.getClass()) || !isBean(current.getClass())) return false;
+        // Sources already mapped keep their destination, like in map()
+        if (!settings.treeMode && context.getAlreadyMapped(source) != null) return false;
+        if (customMappers.find(source.getClass(), destinationClass) != CustomMappers.NONE) return false;
+        return findBestDestinationType(source.getClass(), destinationClass, context).isInstance(current);
+    }
+
+    /**
+     * Replace the elements of the current collection by the mapped ones. The elements
+     * of a list are updated in place when their index hasn't changed.
+     * @return False if the current collection can't be modified.
+     */
+    private boolean mapCollectionInto(Collection<?> source, Collection<Object> current, Class<?> elementClass,
+                                      MappingContext context) {
+        List<?> currentList = current instanceof List ? (List<?>) current : null;
+        List<Object> elements = new ArrayList<Object>(source.size());
+        int index = 0;
+        for (Object element : source) {
+            Object existing = currentList != null && index < currentList.size() ? currentList.get(index) : null;
+            index++;
+            if (element == null) continue;
+            Object mappedElement = canMapInto(element, existing, elementClass, context)
+                    ? mapInto(element, existing, context)
+                    : nominalMap(element, elementClass, context);
+            if (mappedElement != null) elements.add(mappedElement);
+        }
+
+        try {
+            current.clear();
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+        current.addAll(elements);
+        return true;
+    }
+
+    /**
+     * Replace the entries of the current map by the mapped ones. The values
+     * are updated in place when their key is still there.
+     * @return False if the current map can't be modified.
+     */
+    private boolean mapMapInto(Map<?, ?> source, Map<Object, Object> current, Class<?> keyClass, Class<?> valueClass,
+                               MappingContext context) {
+        List<Object> keys = new ArrayList<Object>(source.size());
+        List<Object> values = new ArrayList<Object>(source.size());
+        for (Map.Entry<?, ?> entry : source.entrySet()) {
+            Object mappedKey = nominalMap(entry.getKey(), keyClass, context);
+            if (mappedKey == null && current instanceof EnumMap) continue;
+            Object existing = mappedKey == null ? null : current.get(mappedKey);
+            Object value = entry.getValue();
+            keys.add(mappedKey);
+            values.add(value == null ? null : canMapInto(value, existing, valueClass, context)
+                    ? mapInto(value, existing, context)
+                    : nominalMap(value, valueClass, context));
+        }
+
+        try {
+            current.clear();
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+        for (int i = 0; i < keys.size(); i++) {
+            current.put(keys.get(i), values.get(i));
+        }
+        return true;
+    }
+
+    /**
+     * Get the mapping plan for the given pair, compiling it on first use.
+     * Concurrent first calls may compile the same plan twice, only one is kept.
+     */
+    MappingPlan getPlan(Class<?> sourceClass, Class<?> destinationClass) {
+        MappingPlan.Key key = new MappingPlan.Key(sourceClass, destinationClass);
+        MappingPlan plan = plans.get(key);
+        if (plan == null) {
+            GeneratedMapper<?, ?> generatedMapper = generatedMappers.get(key);
+            PropertyAccess sourceAccess = propertyAccess(sourceClass);
+            PropertyAccess destinationAccess = propertyAccess(destinationClass);
+            if (generatedMapper != null) plan = MappingPlan.generated(generatedMapper);
+            else if (settings.planCache != null && sourceAccess == PropertyAccess.METHODS && destinationAccess == PropertyAccess.METHODS)
+                plan = settings.planCache.restore(sourceClass, destinationClass, converters, customMappers);
+            if (plan == null) plan = MappingPlan.compile(sourceClass, destinationClass,
+                    sourceAccess, destinationAccess, knownSuffixes, converters, customMappers);
+            MappingPlan existing = plans.putIfAbsent(key, plan);
+            if (existing != null) plan = existing;
+        }
+        return plan;
+    }
+
+    /**
+     * Get a plan going property by property, even if the pair has a generated mapper.
+     * The reflective plan of such a pair is compiled on first use, and cached under its own key.
+     */
+    MappingPlan getReflectivePlan(Class<?> sourceClass, Class<?> destinationClass) {
+        MappingPlan plan = getPlan(sourceClass, destinationClass);
+        if (plan.getGeneratedMapper() == null) return plan;
+        MappingPlan.Key key = MappingPlan.Key.reflective(sourceClass, destinationClass);
+        MappingPlan reflective = plans.get(key);
+        if (reflective == null) {
+            reflective = MappingPlan.compile(sourceClass, destinationClass, propertyAccess(sourceClass),
+                    propertyAccess(destinationClass), knownSuffixes, converters, customMappers);
+            MappingPlan existing = plans.putIfAbsent(key, reflective);
+            if (existing != null) reflective = existing;
+        }
+        return reflective;
+    }
+
+    /**
+     * Get the plan keeping only the properties of the projection, pruning it on first use.
+     * @param plan The plan with all the properties.
+     */
+    private MappingPlan getProjectedPlan(MappingPlan plan, Projection projection) {
+        Class<?> sourceClass = plan.getSourceClass();
+        Class<?> destinationClass = plan.getDestinationClass();
+        MappingPlan.Key key = new MappingPlan.Key(sourceClass, destinationClass, projection);
+        MappingPlan projected = plans.get(key);
+        if (projected == null) {
+            // Generated code maps all the properties, prune the properties of a reflective plan instead
+            if (plan.getGeneratedMapper() != null) plan = getReflectivePlan(sourceClass, destinationClass);
+            List<MappingPlan.PropertyMapping> properties = new ArrayList<MappingPlan.PropertyMapping>();
+            for (MappingPlan.PropertyMapping property : plan.getProperties()) {
+                if (!projection.includes(property.getName())) continue;
+                if (projection.isLastLevel() && !isLeaf(property)) continue;
+                properties.add(property);
+            }
+            projected = MappingPlan.restored(sourceClass, destinationClass, properties);
+            MappingPlan existing = plans.putIfAbsent(key, projected);
+            if (existing != null) projected = existing;
+        }
+        return projected;
+    }
+
+    /** @return True if the value of the property doesn't reference objects mapped with a plan. */
+    private boolean isLeaf(MappingPlan.PropertyMapping property) {
+        if (property.getPrimitiveCopier() != null || property.getConverter() != null) return true;
+        return property.getParameterType() != null && isLeafType(property.getGenericParameterType());
+    }
+
+    private boolean isLeafType(Type type) {
+        Class<?> rawClass = rawClass(type);
+        if (rawClass == null) return false;
+        if (rawClass.isPrimitive() || rawClass.isEnum() || isNativeType(rawClass) || immutableTypes.contains(rawClass)) {
+            return true;
+        }
+        if (rawClass.isArray()) return isLeafType(componentType(type));
+        if (Collection.class.isAssignableFrom(rawClass)) return isLeafType(typeArgument(type, 0));
+        if (Map.class.isAssignableFrom(rawClass)) {
+            return isLeafType(typeArgument(type, 0)) && isLeafType(typeArgument(type, 1));
+        }
+        return false;
+    }
+
+    /** @return The property access declared for the class or its closest superclass. */
+    private PropertyAccess propertyAccess(Class<?> type) {
+        if (propertyAccess.isEmpty()) return PropertyAccess.METHODS;
+        for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+            PropertyAccess access = propertyAccess.get(current);
+            if (access != null) return access;
+        }
+        return PropertyAccess.METHODS;
+    }
+
+    /** Resolve the plan of the given pair and recursively the ones of its properties. */
+    private void precompile(Class<?> sourceClass, Class<?> destinationClass,
+                            MappingContext context, Set<MappingPlan.Key> visited) {
+        if (sourceClass.isPrimitive() || sourceClass.isEnum() || sourceClass.isArray()
+                || isNativeType(sourceClass) || immutableTypes.contains(sourceClass) || destinationClass.isPrimitive()) return;
+        if (customMappers.find(sourceClass, destinationClass) != CustomMappers.NONE) return;
+
+        Class<?> bestDestinationClass = findBestDestinationType(sourceClass, destinationClass, context);
+        if (!visited.add(new MappingPlan.Key(sourceClass, bestDestinationClass))) return;
+        hooks.prepare(sourceClass, bestDestinationClass);
+        MappingPlan plan = getPlan(sourceClass, bestDestinationClass);
+        for (MappingPlan.PropertyMapping property : plan.getProperties()) {
+            if (property.getGetter() == null) continue;
+            precompileValue(PropertyAccessors.genericValueType(property.getGetter()),
+                    property.getGenericParameterType(), context, visited);
+        }
+
+        // Subclasses of the source class may be mapped to other destinations
+        for (Map.Entry<Class<?>, Class<?>> mapping : mappings.entrySet()) {
+            if (mapping.getKey() != sourceClass && sourceClass.isAssignableFrom(mapping.getKey())) {
+                precompile(mapping.getKey(), bestDestinationClass, context, visited);
+            }
+        }
+    }
+
+    private void precompileValue(Type sourceType, Type destinationType,
+                                 MappingContext context, Set<MappingPlan.Key> visited) {
+        Class<?> sourceClass = rawClass(sourceType);
+        Class<?> destinationClass = rawClass(destinationType);
+        if (sourceClass == null || destinationClass == null) return;
+        if (sourceClass.isArray() || Collection.class.isAssignableFrom(sourceClass)) {
+            Type sourceElement = sourceClass.isArray() ? componentType(sourceType) : typeArgument(sourceType, 0);
+            Type destinationElement = destinationClass.isArray() ? componentType(destinationType) : typeArgument(destinationType, 0);
+            precompileValue(sourceElement, destinationElement, context, visited);
+        } else if (Map.class.isAssignableFrom(sourceClass)) {
+            precompileValue(typeArgument(sourceType, 0), typeArgument(destinationType, 0), context, visited);
+            precompileValue(typeArgument(sourceType, 1), typeArgument(destinationType, 1), context, visited);
+        } else {
+            precompile(sourceClass, destinationClass, context, visited);
+        }
+    }
+
+    /** @return The class of the given type, or null for type variables and wildcards. */
+    private static Class<?> rawClass(Type type) {
+        if (type instanceof Class) return (Class<?>) type;
+        if (type instanceof ParameterizedType) return (Class<?>) ((ParameterizedType) type).getRawType();
+        if (type instanceof GenericArrayType) {
+            Class<?> componentClass = rawClass(((GenericArrayType) type).getGenericComponentType());
+            return componentClass == null ? null : Array.newInstance(componentClass, 0).getClass();
+        }
+        return null;
+    }
+
+    /** @return The element type of the given array type. */
+    private static Type componentType(Type type) {
+        if (type instanceof GenericArrayType) return ((GenericArrayType) type).getGenericComponentType();
+        return ((Class<?>) type).getComponentType();
+    }
+
+    private static Type typeArgument(Type type, int index) {
+        if (!(type instanceof ParameterizedType)) return null;
+        Type[] arguments = ((ParameterizedType) type).getActualTypeArguments();
+        return index < arguments.length ? arguments[index] : null;
+    }
+
+    /** @return A new context for a map() call. */
+    MappingContext newContext() {
+        return new MappingContext(mappings);
+    }
+
+    /** @return The custom mapper to use for the given pair, or {@link CustomMappers#NONE}. */
+    CustomMappers.Match findCustomMapper(Class<?> sourceClass, Class<?> destinationClass) {
+        return customMappers.find(sourceClass, destinationClass);
+    }
+
+    /** @return True if the instances of the given class are mapped using their getters. */
+    boolean isBean(Class<?> sourceClass) {
+        return !sourceClass.isPrimitive() && !sourceClass.isArray() && !sourceClass.isEnum()
+                && !Iterable.class.isAssignableFrom(sourceClass) && !Map.class.isAssignableFrom(sourceClass)
+                && !isNativeType(sourceClass) && !immutableTypes.contains(sourceClass);
+    }
+
+    private void checkNotFrozen() {
+        if (frozen) throw new UnsupportedOperationException("This mapper was built by a MapperBuilder and can't be modified");
+    }
+
+    /** The settings of a mapper which aren't registries, copied as a whole for a frozen mapper. */
+    private static final class Settings {
+
+        private boolean strictMode = false;
+
+        private boolean treeMode = false;
+
+        private boolean lazyMode = false;
+
+        /** Maximum depth of the mapped objects in tree mode, 0 for no limit */
+        private int maxDepth = 0;
+
+        /** Executor used to map big collections, null to map them on the caller thread */
+        private ExecutorService parallelExecutor;
+
+        /** Minimum size of the collections mapped on the parallel executor */
+        private int parallelThreshold;
+
+        /** Plans persisted between two runs, null if disabled */
+        private PlanCache planCache;
+
+        Settings() {
+        }
+
+        Settings(Settings other) {
+            strictMode = other.strictMode;
+            treeMode = other.treeMode;
+            lazyMode = other.lazyMode;
+            maxDepth = other.maxDepth;
+            parallelExecutor = other.parallelExecutor;
+            parallelThreshold = other.parallelThreshold;
+            planCache = other.planCache;
+        }
+    }
+
+    /**
+     * The beans compared so far by isSameMapping(), source -> current. The comparisons
+     * of an element of a set with a candidate which doesn't match are rolled back.
+     */
+    private static final class Visited {
+
+        private final Map<Object, Object> matches = new IdentityHashMap<Object, Object>();
+
+        /** Sources in the order they were added */
+        private final List<Object> sources = new ArrayList<Object>();
+
+        /** @return The current object compared with the source, or null. */
+        Object get(Object source) {
+            return matches.get(source);
+        }
+
+        void put(Object source, Object current) {
+            matches.put(source, current);
+            sources.add(source);
+        }
+
+        /** @return The mark to give to {@link #rollback(int)} to forget the following comparisons. */
+        int mark() {
+            return sources.size();
+        }
+
+        void rollback(int mark) {
+            while (sources.size() > mark) {
+                matches.remove(sources.remove(sources.size() - 1));
+            }
+        }
+
+        Set<Map.Entry<Object, Object>> entries() {
+            return matches.entrySet();
+        }
+    }
+
+    /** Maps the elements of an iterator lazily, see mapIterator(). */
+    private final class MappingIterator<D> implements Iterator<D> {
+
+        private final Iterator<?> source;
+
+        private final Class<D> destinationClass;
+
+        private final int window;
+
+        private MappingContext context;
+
+        /** Number of elements mapped with the current context */
+        private int mappedInWindow;
+
+        /** The next mapped element, null if not mapped yet */
+        private D next;
+
+        MappingIterator(Iterator<?> source, Class<D> destinationClass, int window) {
+            this.source = source;
+            this.destinationClass = destinationClass;
+            this.window = window;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == null && source.hasNext()) {
+                if (context == null || mappedInWindow >= window) {
+                    context = new MappingContext(mappings);
+                    mappedInWindow = 0;
+                }
+                mappedInWindow++;
+                next = nominalMap(source.next(), destinationClass, context);
+            }
+            return next != null;
+        }
+
+        @Override
+        public D next() {
+            if (!hasNext()) throw new NoSuchElementException();
+            D result = next;
+            next = null;
+            return result;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /** Hands nested objects of a generated mapper back to the nominal mapping. */
+    private final class GeneratedMapperCallback implements GeneratedMapper.Callback {
+
+        private final Object source;
+
+        private final Class<?> destinationClass;
+
+        private final MappingContext context;
+
+        GeneratedMapperCallback(Object source, Class<?> destinationClass, MappingContext context) {
+            this.source = source;
+            this.destinationClass = destinationClass;
+            this.context = context;
+        }
+
+        @Override
+        public Object map(Object value, Class<?> setterType) {
+            return nominalMap(value, setterType, setterType, context);
+        }
+
+        @Override
+        public Object map(Object value, Class<?> setterType, Class<?>[] typeArguments) {
+            return nominalMap(value, new SimpleParameterizedType(setterType, typeArguments),
+                    setterType, context);
+        }
+
+        @Override
+        public Object convert(Object value, Class<?> valueClass, Class<?> setterType) {
+            // Same precedence as the properties of the reflective plans
+            if (customMappers.find(PropertyAccessors.boxed(valueClass), PropertyAccessors.boxed(setterType)) == CustomMappers.NONE) {
+                Converter<Object, Object> converter = converters.find(valueClass, setterType);
+                if (converter != null) return converter.convert(value);
+            }
+            return map(value, setterType);
+        }
+
+        @Override
+        public boolean hasCustomMapper(Class<?> valueClass, Class<?> setterType) {
+            return customMappers.find(PropertyAccessors.boxed(valueClass), PropertyAccessors.boxed(setterType)) != CustomMappers.NONE;
+        }
+
+        @Override
+        public void failed(String setterName, Exception e) {
+            if (e instanceof MaxDepthExceededException) throw (MaxDepthExceededException) e;
+            if (settings.strictMode) {
+                throw new StrictModeException("Unable to map "
+                        + destinationClass.getSimpleName()
+                        + "." + setterName + "() method in "
+                        + source.getClass().getCanonicalName(), e);
+            }
+        }
+    }
+
+    /**
+     * Result of a custom mapper lookup.
+     * @deprecated Custom mappers are resolved once per type pair, nothing uses this class anymore.
+     * Kept for compatibility, it will be removed in the next major version.
+     */
+    @Deprecated
     public static class CustomMapperResult<T> {
         boolean hasMatched = false;
         T result = null;
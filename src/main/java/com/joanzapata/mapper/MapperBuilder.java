@@ -0,0 +1,168 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.io.File;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Builds a Mapper whose configuration can't be modified anymore, so that it can be
+ * shared by any number of threads. The configuration methods are the same as Mapper's.
+ * <pre>
+ * Mapper mapper = new MapperBuilder()
+ *     .mapping(Book.class, BookDTO.class)
+ *     .strictMode()
+ *     .build();
+ * </pre>
+ */
+public final class MapperBuilder {
+
+    private final Mapper prototype = new Mapper();
+
+    /** @see Mapper#strictMode(boolean) */
+    public MapperBuilder strictMode(boolean strictMode) {
+        prototype.strictMode(strictMode);
+        return this;
+    }
+
+    /** @see Mapper#strictMode() */
+    public MapperBuilder strictMode() {
+        return strictMode(true);
+    }
+
+    /** @see Mapper#treeMode(boolean) */
+    public MapperBuilder treeMode(boolean treeMode) {
+        prototype.treeMode(treeMode);
+        return this;
+    }
+
+    /** @see Mapper#treeMode() */
+    public MapperBuilder treeMode() {
+        return treeMode(true);
+    }
+
+    /** @see Mapper#treeMode(int) */
+    public MapperBuilder treeMode(int maxDepth) {
+        prototype.treeMode(maxDepth);
+        return this;
+    }
+
+    /** @see Mapper#lazyMode(boolean) */
+    public MapperBuilder lazyMode(boolean lazyMode) {
+        prototype.lazyMode(lazyMode);
+        return this;
+    }
+
+    /** @see Mapper#lazyMode() */
+    public MapperBuilder lazyMode() {
+        return lazyMode(true);
+    }
+
+    /** @see Mapper#parallel(int) */
+    public MapperBuilder parallel(int threshold) {
+        prototype.parallel(threshold);
+        return this;
+    }
+
+    /** @see Mapper#parallel(int, ExecutorService) */
+    public MapperBuilder parallel(int threshold, ExecutorService executor) {
+        prototype.parallel(threshold, executor);
+        return this;
+    }
+
+    /** @see Mapper#planCache(File) */
+    public MapperBuilder planCache(File file) {
+        prototype.planCache(file);
+        return this;
+    }
+
+    /** @see Mapper#mapping(Class, Class) */
+    public MapperBuilder mapping(Class<?> sourceClass, Class<?> destinationClass) {
+        prototype.mapping(sourceClass, destinationClass);
+        return this;
+    }
+
+    /** @see Mapper#biMapping(Class, Class) */
+    public MapperBuilder biMapping(Class<?> sourceClass, Class<?> destinationClass) {
+        prototype.biMapping(sourceClass, destinationClass);
+        return this;
+    }
+
+    /** @see Mapper#hook(Hook) */
+    public <S, D> MapperBuilder hook(Hook<S, D> hook) {
+        prototype.hook(hook);
+        return this;
+    }
+
+    /** @see Mapper#customMapper(CustomMapper) */
+    public <S, D> MapperBuilder customMapper(CustomMapper<S, D> customMapper) {
+        prototype.customMapper(customMapper);
+        return this;
+    }
+
+    /** @see Mapper#customBiMapper(CustomBiMapper) */
+    public <S, D> MapperBuilder customBiMapper(CustomBiMapper<S, D> customBiMapper) {
+        prototype.customBiMapper(customBiMapper);
+        return this;
+    }
+
+    /** @see Mapper#enumMapping(Enum, Enum) */
+    public MapperBuilder enumMapping(Enum<?> source, Enum<?> destination) {
+        prototype.enumMapping(source, destination);
+        return this;
+    }
+
+    /** @see Mapper#enumFallback(Enum) */
+    public MapperBuilder enumFallback(Enum<?> fallback) {
+        prototype.enumFallback(fallback);
+        return this;
+    }
+
+    /** @see Mapper#propertyAccess(Class, PropertyAccess) */
+    public MapperBuilder propertyAccess(Class<?> type, PropertyAccess access) {
+        prototype.propertyAccess(type, access);
+        return this;
+    }
+
+    /** @see Mapper#immutableType(Class) */
+    public MapperBuilder immutableType(Class<?> type) {
+        prototype.immutableType(type);
+        return this;
+    }
+
+    /** @see Mapper#converter(Class, Class, Converter) */
+    public <S, D> MapperBuilder converter(Class<S> sourceClass, Class<D> destinationClass, Converter<S, D> converter) {
+        prototype.converter(sourceClass, destinationClass, converter);
+        return this;
+    }
+
+    /** @see Mapper#collectionFactory(CollectionFactory) */
+    public MapperBuilder collectionFactory(CollectionFactory collectionFactory) {
+        prototype.collectionFactory(collectionFactory);
+        return this;
+    }
+
+    /**
+     * Creates a mapper with the current configuration. Its configuration methods throw an
+     * UnsupportedOperationException. The builder can still be used to build other mappers.
+     */
+    public Mapper build() {
+        return new Mapper(prototype);
+    }
+}
@@ -18,19 +18,15 @@
  */
 package com.joanzapata.mapper;
 
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.List;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
-
-import static com.joanzapata.mapper.Mapper.CustomMapperResult;
-
 final class MapperUtil {
 
-    private static final Logger logger = LoggerFactory.getLogger(MapperUtil.class);
-    
     /**
      * Find a getter on the source object for the given setter name.
      * @param source The source object.
@@ -38,6 +34,16 @@ final class MapperUtil {
      * @return the corresponding getter method given the setter method, or null if nothing found.
      */
     public static Method findGetter(Object source, Method setter, List<String> knownSuffixes) {
+        return findGetter(source.getClass(), setter, knownSuffixes);
+    }
+
+    /**
+     * Find a getter on the source class for the given setter name.
+     * @param sourceClass The source class.
+     * @param setter      The setter method.
+     * @return the corresponding getter method given the setter method, or null if nothing found.
+     */
+    public static Method findGetter(Class<?> sourceClass, Method setter, List<String> knownSuffixes) {
         // A setter must have 1 parameter
         if (setter.getParameterTypes().length != 1) {
             return null;
@@ -48,10 +54,20 @@ final class MapperUtil {
             return null;
         }
 
-        String expectedGetterName = "get" + setter.getName().substring(3);
-        String expectedGetterNameForBooleans = "is" + setter.getName().substring(3);
+        return findGetter(sourceClass, setter.getName().substring(3), knownSuffixes);
+    }
+
+    /**
+     * Find a getter on the source class for the given property name.
+     * @param sourceClass  The source class.
+     * @param propertyName The capitalized name of the property, "Title" for getTitle().
+     * @return the corresponding getter method, or null if nothing found.
+     */
+    public static Method findGetter(Class<?> sourceClass, String propertyName, List<String> knownSuffixes) {
+        String expectedGetterName = "get" + propertyName;
+        String expectedGetterNameForBooleans = "is" + propertyName;
 
-        Class<?> loopClass = source.getClass();
+        Class<?> loopClass = sourceClass;
         while (loopClass != Object.class) {
             for (Method method : loopClass.getMethods()) {
                 if (method.getParameterTypes().length != 0) continue;
@@ -72,6 +88,55 @@ final class MapperUtil {
         return null;
     }
 
+    /**
+     * Find a field on the source class for the given property name,
+     * following the same suffix rules as the getters.
+     * @param sourceClass  The source class.
+     * @param propertyName The capitalized name of the property, "Title" for a "title" field.
+     * @return the corresponding field, or null if nothing found.
+     */
+    public static Field findField(Class<?> sourceClass, String propertyName, List<String> knownSuffixes) {
+        String expectedFieldName = decapitalize(propertyName);
+        if (knownSuffixes != null) expectedFieldName = removeSuffix(expectedFieldName, knownSuffixes);
+        for (Field field : findAllFields(sourceClass)) {
+            String fieldName = field.getName();
+            if (knownSuffixes != null) fieldName = removeSuffix(fieldName, knownSuffixes);
+            if (expectedFieldName.equals(fieldName)) return field;
+        }
+        return null;
+    }
+
+    /**
+     * Find all the instance fields of the given class and its superclass(es), whatever their visibility.
+     * @param ofClass The class to retrieve the fields from.
+     * @return A list of fields, an empty list if no field found.
+     */
+    public static List<Field> findAllFields(Class<?> ofClass) {
+        List<Field> fields = new ArrayList<Field>();
+        Class<?> currentClass = ofClass;
+        while (currentClass != null && currentClass != Object.class) {
+            for (Field field : currentClass.getDeclaredFields())
+                if (!Modifier.isStatic(field.getModifiers()) && !field.isSynthetic())
+                    fields.add(field);
+            currentClass = currentClass.getSuperclass();
+        }
+        return fields;
+    }
+
+    public static String capitalize(String name) {
+        return name.isEmpty() ? name : Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    public static String decapitalize(String name) {
+        return name.isEmpty() ? name : Character.toLowerCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /** @return "Book.setTitle() method" or "Book.title field", for the messages. */
+    public static String describe(Member member) {
+        return member.getDeclaringClass().getSimpleName() + "." + member.getName()
+                + (member instanceof Method ? "() method" : " field");
+    }
+
     public static String removeSuffix(String expectedGetterName, List<String> knownSuffixes) {
         for (String suffix : knownSuffixes) {
             if (expectedGetterName.endsWith(suffix)) {
@@ -98,6 +163,19 @@ final class MapperUtil {
         return null;
     }
 
+    /** @return True if the objects of the given class are returned as is by mapPrimitiveTypeOrNull(). */
+    public static boolean isNativeType(Class<?> type) {
+        return type == Byte.class ||
+                type == Short.class ||
+                type == Integer.class ||
+                type == Long.class ||
+                type == Float.class ||
+                type == Double.class ||
+                type == Boolean.class ||
+                type == String.class ||
+                type == Character.class;
+    }
+
     public static <D> boolean isCompatiblePrimitiveType(D destinationObject, Class<D> expectedClass) {
         Class<?> expectedClassAutoboxed = autoBox(expectedClass);
         return expectedClassAutoboxed.isAssignableFrom(destinationObject.getClass());
@@ -145,44 +223,4 @@ final class MapperUtil {
         }
         return methods;
     }
-
-    public static void applyHooks(List<HookWrapper<?, ?>> hooks, Object source, Object destination) {
-        for (HookWrapper<?, ?> hook : hooks) {
-            hook.apply(source, destination);
-        }
-    }
-
-    @SuppressWarnings("unchecked")
-    public static <D> CustomMapperResult<D> applyCustomMappers(List<CustomMapperWrapper<?, ?>> customMappers, Object source, Class<D> destinationClass, MappingContext mappingContext) {
-        for (CustomMapperWrapper<?, ?> customMapper : customMappers) {
-            logger.debug("source: {}, destination: {}", source.getClass().getSimpleName(), destinationClass.getSimpleName());
-            if (customMapper.isApplicable(source, destinationClass)) {
-                // Mapped has applied
-                final D destination = (D) customMapper.apply(source, destinationClass, mappingContext);
-                return new CustomMapperResult<D>(destination);
-            }
-        }
-        // Mapped has not applied
-        return new CustomMapperResult<D>();
-
-    }
-    
-    @SuppressWarnings("unchecked")
-    public static <D> CustomMapperResult<D> applyCustomBiMappers(List<CustomBiMapperWrapper<?, ?>> customBiMappers, Object source, Class<D> destinationClass, MappingContext mappingContext) {
-        logger.debug("source: {}, destination: {}", source.getClass().getSimpleName(), destinationClass.getSimpleName());
-        for (CustomBiMapperWrapper<?, ?> customBiMapper : customBiMappers) {
-            if (customBiMapper.isApplicableForward(source, destinationClass)) {
-                // Mapped has applied
-                final D destination = (D) customBiMapper.applyForward(source, destinationClass, mappingContext);
-                return new CustomMapperResult<D>(destination);
-            } else if (customBiMapper.isApplicableBackward(source, destinationClass)) {
-                // Mapped has applied
-                final D destination = (D) customBiMapper.applyBackward(source, destinationClass, mappingContext);
-                return new CustomMapperResult<D>(destination);
-            }
-        }
-        // Mapped has not applied
-        return new CustomMapperResult<D>();
-
-    }
 }
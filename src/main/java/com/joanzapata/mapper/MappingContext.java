@@ -20,44 +20,109 @@ package com.joanzapata.mapper;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
 
 public class MappingContext {
 
-    /** Contains all the already mapped objects */
-    private final Map<Object, Object> sourceToDestination;
+    /** Number of tables the already mapped objects are spread on, in a concurrent context */
+    private static final int STRIPE_BITS = 5;
 
+    /**
+     * Contains all the already mapped objects, by identity. A sequential context
+     * has a single table, a concurrent one spreads them on several tables, each
+     * guarded by its own lock.
+     */
+    private final IdentityTable[] sourceToDestination;
+
+    private final boolean concurrent;
+
+    /** Mappings of the mapper, never modified by the context */
     private final Map<Class<?>, Class<?>> mappings;
 
+    /** Mappings added to this context only, null until one is added to a sequential context */
+    private Map<Class<?>, Class<?>> contextMappings;
+
+    /** Depth of the object being mapped, only tracked in tree mode */
+    private int depth;
+
+    /** Same as depth, for each thread of a concurrent context */
+    private final ThreadLocal<int[]> concurrentDepth;
+
+    /** Projection of the object being mapped, null to map all the properties. Sequential contexts only. */
+    private Projection projection;
+
     MappingContext(Map<Class<?>, Class<?>> mappings) {
         this(null, mappings);
     }
 
-    /** @param mappingContext Optional mapping context to merge with.F */
+    /** @param mappingContext Optional mapping context to merge with. */
     MappingContext(MappingContext mappingContext, Map<Class<?>, Class<?>> mappings) {
+        this(mappingContext, mappings, false);
+    }
+
+    /**
+     * @param mappingContext Optional mapping context to merge with.
+     * @param concurrent     True if the context will be used by several threads at the same time.
+     */
+    MappingContext(MappingContext mappingContext, Map<Class<?>, Class<?>> mappings, boolean concurrent) {
         this.mappings = mappings;
-        sourceToDestination = new HashMap<Object, Object>();
+        this.concurrent = concurrent;
+        sourceToDestination = new IdentityTable[concurrent ? 1 << STRIPE_BITS : 1];
+        for (int i = 0; i < sourceToDestination.length; i++) {
+            sourceToDestination[i] = new IdentityTable();
+        }
+        concurrentDepth = concurrent ? new ThreadLocal<int[]>() {
+            @Override
+            protected int[] initialValue() {
+                return new int[1];
+            }
+        } : null;
+        if (concurrent) contextMappings = new ConcurrentHashMap<Class<?>, Class<?>>();
         if (mappingContext != null) {
-            this.mappings.putAll(mappingContext.mappings);
-            this.sourceToDestination.putAll(mappingContext.sourceToDestination);
+            if (mappingContext.contextMappings != null) {
+                if (contextMappings == null) contextMappings = new HashMap<Class<?>, Class<?>>();
+                contextMappings.putAll(mappingContext.contextMappings);
+            }
+            mappingContext.forEachAlreadyMapped(new BiConsumer<Object, Object>() {
+                @Override
+                public void accept(Object source, Object destination) {
+                    putAlreadyMapped(source, destination);
+                }
+            });
         }
     }
 
+    /**
+     * Adds an explicit mapping from a source class to a destination class, for the mapping
+     * using this context only. It takes precedence over the mappings of the mapper.
+     */
     public void addMapping(Class<?> source, Class<?> destination) {
-        mappings.put(source, destination);
+        if (contextMappings == null) contextMappings = new HashMap<Class<?>, Class<?>>();
+        contextMappings.put(source, destination);
     }
 
     Class<?> getMapping(Class<?> source) {
+        if (contextMappings != null) {
+            Class<?> destination = contextMappings.get(source);
+            if (destination != null) return destination;
+        }
         return mappings.get(source);
     }
 
     /**
      * Get the destination for an already mapped source.
+     * Sources are compared by reference, not using equals().
      * @param source The source object.
      * @return the destination object, or null if not mapped already.
      */
     @SuppressWarnings("unchecked")
 	public <D> D getAlreadyMapped(Object source) {
-        return (D) sourceToDestination.get(source);
+        if (!concurrent) return (D) sourceToDestination[0].get(source);
+        IdentityTable table = stripe(source);
+        synchronized (table) {
+            return (D) table.get(source);
+        }
     }
 
     public <D> D createInstanceForDestination(Class<D> destinationClass) {
@@ -70,6 +135,67 @@ public class MappingContext {
 
     /** Store the destination object for a given source */
     public <D> void putAlreadyMapped(Object source, D destination) {
-        sourceToDestination.put(source, destination);
+        if (!concurrent) {
+            sourceToDestination[0].put(source, destination);
+            return;
+        }
+        IdentityTable table = stripe(source);
+        synchronized (table) {
+            table.put(source, destination);
+        }
+    }
+
+    /**
+     * Store the destination object for a given source, unless another thread
+     * has stored one in the meantime.
+     * @return The destination now stored for the source.
+     */
+    @SuppressWarnings("unchecked")
+    <D> D putAlreadyMappedIfAbsent(Object source, D destination) {
+        if (!concurrent) {
+            sourceToDestination[0].put(source, destination);
+            return destination;
+        }
+        IdentityTable table = stripe(source);
+        synchronized (table) {
+            Object existing = table.get(source);
+            if (existing != null) return (D) existing;
+            table.put(source, destination);
+            return destination;
+        }
+    }
+
+    private void forEachAlreadyMapped(BiConsumer<Object, Object> action) {
+        for (IdentityTable table : sourceToDestination) {
+            if (!concurrent) {
+                table.forEach(action);
+                continue;
+            }
+            synchronized (table) {
+                table.forEach(action);
+            }
+        }
+    }
+
+    private IdentityTable stripe(Object source) {
+        return sourceToDestination[(System.identityHashCode(source) * 0x9E3779B9) >>> (32 - STRIPE_BITS)];
+    }
+
+    Projection getProjection() {
+        return projection;
+    }
+
+    void setProjection(Projection projection) {
+        this.projection = projection;
+    }
+
+    /** @return The depth of the object being entered. */
+    int enter() {
+        return concurrent ? ++concurrentDepth.get()[0] : ++depth;
+    }
+
+    void exit() {
+        if (concurrent) concurrentDepth.get()[0]--;
+        else depth--;
     }
 }
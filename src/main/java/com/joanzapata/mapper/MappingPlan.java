@@ -0,0 +1,360 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+import static com.joanzapata.mapper.MapperUtil.capitalize;
+import static com.joanzapata.mapper.MapperUtil.findAllFields;
+import static com.joanzapata.mapper.MapperUtil.findAllSetterMethods;
+import static com.joanzapata.mapper.MapperUtil.findField;
+import static com.joanzapata.mapper.MapperUtil.findGetter;
+import static com.joanzapata.mapper.MapperUtil.removeSuffix;
+
+/**
+ * Resolved getter/setter pairs for a given (source class, destination class) pair.
+ * Building a plan is the expensive reflective part of the mapping, so the
+ * Mapper builds it once per pair and reuses it on every following call.
+ */
+final class MappingPlan {
+
+    /** Reads nothing, for the destinations without getter */
+    private static final Function<Object, Object> NO_VALUE = new Function<Object, Object>() {
+        @Override
+        public Object apply(Object destination) {
+            return null;
+        }
+    };
+
+    private final Class<?> sourceClass;
+
+    private final Class<?> destinationClass;
+
+    private final List<PropertyMapping> properties;
+
+    private final GeneratedMapper<Object, Object> generatedMapper;
+
+    private MappingPlan(Class<?> sourceClass, Class<?> destinationClass, List<PropertyMapping> properties,
+                        GeneratedMapper<Object, Object> generatedMapper) {
+        this.sourceClass = sourceClass;
+        this.destinationClass = destinationClass;
+        this.properties = properties;
+        this.generatedMapper = generatedMapper;
+    }
+
+    /**
+     * Resolve all the setters of the destination class and their matching getters in the source class.
+     * @param sourceClass      The runtime class of the source object.
+     * @param destinationClass The class that will be instantiated.
+     * @param knownSuffixes    The name variations accepted between getter and setter.
+     * @param converters       The converters to bind to the properties whose types don't match.
+     * @param customMappers    The custom mappers, they take precedence over the converters and primitive copiers.
+     * @return The compiled plan, never null.
+     */
+    static MappingPlan compile(Class<?> sourceClass, Class<?> destinationClass, List<String> knownSuffixes,
+                               ConverterRegistry converters, CustomMappers customMappers) {
+        return compile(sourceClass, destinationClass, PropertyAccess.METHODS, PropertyAccess.METHODS,
+                knownSuffixes, converters, customMappers);
+    }
+
+    /**
+     * Same as {@link #compile(Class, Class, List, ConverterRegistry, CustomMappers)}, where the properties
+     * of each class may be fields. Destination fields are only used for the properties
+     * which don't have a setter.
+     */
+    static MappingPlan compile(Class<?> sourceClass, Class<?> destinationClass,
+                               PropertyAccess sourceAccess, PropertyAccess destinationAccess,
+                               List<String> knownSuffixes, ConverterRegistry converters,
+                               CustomMappers customMappers) {
+        if (knownSuffixes == null) knownSuffixes = Collections.emptyList();
+        List<PropertyMapping> properties = new ArrayList<PropertyMapping>();
+        Set<String> mappedNames = new HashSet<String>();
+
+        if (destinationAccess.usesMethods()) {
+            // findAllSetterMethods walks the hierarchy, so inherited setters appear several times
+            for (Method setterMethod : new LinkedHashSet<Method>(findAllSetterMethods(destinationClass))) {
+                Member getter = null;
+                if (setterMethod.getParameterTypes().length == 1 && setterMethod.getName().length() > 3) {
+                    String name = setterMethod.getName().substring(3);
+                    getter = findSourceProperty(sourceClass, sourceAccess, name, knownSuffixes);
+                    mappedNames.add(removeSuffix(name, knownSuffixes));
+                }
+                properties.add(new PropertyMapping(getter, setterMethod, converters, customMappers));
+            }
+        }
+
+        if (destinationAccess.usesFields()) {
+            for (Field field : findAllFields(destinationClass)) {
+                String name = capitalize(field.getName());
+                if (Modifier.isFinal(field.getModifiers()) || !mappedNames.add(removeSuffix(name, knownSuffixes))) continue;
+                if (!PropertyAccessors.makeAccessible(field)) continue;
+                Member getter = findSourceProperty(sourceClass, sourceAccess, name, knownSuffixes);
+                properties.add(new PropertyMapping(getter, field, converters, customMappers));
+            }
+        }
+        return new MappingPlan(sourceClass, destinationClass, Collections.unmodifiableList(properties), null);
+    }
+
+    /** @return The getter or the field of the given property on the source class, or null. */
+    private static Member findSourceProperty(Class<?> sourceClass, PropertyAccess sourceAccess,
+                                             String name, List<String> knownSuffixes) {
+        if (sourceAccess.usesMethods()) {
+            Method getter = findGetter(sourceClass, name, knownSuffixes);
+            if (getter != null) return getter;
+        }
+        if (sourceAccess.usesFields()) {
+            Field field = findField(sourceClass, name, knownSuffixes);
+            if (field != null && PropertyAccessors.makeAccessible(field)) return field;
+        }
+        return null;
+    }
+
+    /** Create a plan from properties already resolved, see {@link PlanCache} and {@link Projection}. */
+    static MappingPlan restored(Class<?> sourceClass, Class<?> destinationClass, List<PropertyMapping> properties) {
+        return new MappingPlan(sourceClass, destinationClass, Collections.unmodifiableList(properties), null);
+    }
+
+    /**
+     * Create a plan delegating the property copy to a mapper generated at compile time.
+     * No reflection is involved in that case.
+     */
+    @SuppressWarnings("unchecked")
+    static MappingPlan generated(GeneratedMapper<?, ?> generatedMapper) {
+        return new MappingPlan(generatedMapper.getSourceClass(), generatedMapper.getDestinationClass(),
+                Collections.<PropertyMapping>emptyList(), (GeneratedMapper<Object, Object>) generatedMapper);
+    }
+
+    Class<?> getSourceClass() {
+        return sourceClass;
+    }
+
+    Class<?> getDestinationClass() {
+        return destinationClass;
+    }
+
+    /** @return The generated mapper to use instead of the properties, or null. */
+    GeneratedMapper<Object, Object> getGeneratedMapper() {
+        return generatedMapper;
+    }
+
+    /** @return The properties to map, in setter discovery order, followed by the fields. */
+    List<PropertyMapping> getProperties() {
+        return properties;
+    }
+
+    /** @return True if some properties are read or written through fields. */
+    boolean usesFields() {
+        for (PropertyMapping property : properties) {
+            if (property.getSetter() instanceof Field || property.getGetter() instanceof Field) return true;
+        }
+        return false;
+    }
+
+    /**
+     * A setter of the destination class and its getter in the source class, if any.
+     * Both of them may be fields instead.
+     */
+    static final class PropertyMapping {
+
+        private final Member getter;
+
+        private final Member setter;
+
+        private final String name;
+
+        private final Function<Object, Object> getterAccessor;
+
+        private final BiConsumer<Object, Object> setterAccessor;
+
+        private final Type genericParameterType;
+
+        private final Class<?> parameterType;
+
+        private final PrimitiveCopiers.PrimitiveCopier primitiveCopier;
+
+        private final Converter<Object, Object> converter;
+
+        /** Reads the property on the destination object, resolved on first use */
+        private volatile Function<Object, Object> currentValueAccessor;
+
+        PropertyMapping(Member getter, Member setter, ConverterRegistry converters, CustomMappers customMappers) {
+            this.getter = getter;
+            this.setter = setter;
+            this.name = setter instanceof Field || setter.getName().length() <= 3
+                    ? setter.getName() : MapperUtil.decapitalize(setter.getName().substring(3));
+            if (setter instanceof Field) {
+                this.genericParameterType = ((Field) setter).getGenericType();
+                this.parameterType = ((Field) setter).getType();
+            } else {
+                // Setters without exactly one parameter never have a getter, the types are unused
+                Method setterMethod = (Method) setter;
+                boolean singleParameter = setterMethod.getParameterTypes().length == 1;
+                this.genericParameterType = singleParameter ? setterMethod.getGenericParameterTypes()[0] : null;
+                this.parameterType = singleParameter ? setterMethod.getParameterTypes()[0] : null;
+            }
+            this.getterAccessor = getter == null ? null : getter instanceof Field
+                    ? PropertyAccessors.getter((Field) getter) : PropertyAccessors.getter((Method) getter);
+            this.setterAccessor = getter == null ? null : setter instanceof Field
+                    ? PropertyAccessors.setter((Field) setter) : PropertyAccessors.setter((Method) setter);
+            Class<?> valueType = getter == null ? null : PropertyAccessors.valueType(getter);
+            // A custom mapper for the boxed types takes precedence over the copier and the converter
+            boolean customMapped = getter != null && customMappers.find(PropertyAccessors.boxed(valueType),
+                    PropertyAccessors.boxed(parameterType)) != CustomMappers.NONE;
+            this.primitiveCopier = getter == null || customMapped ? null : PrimitiveCopiers.of(getter, setter);
+            this.converter = getter == null || customMapped || primitiveCopier != null
+                    || PropertyAccessors.boxed(parameterType).isAssignableFrom(PropertyAccessors.boxed(valueType))
+                    ? null : converters.find(valueType, parameterType);
+        }
+
+        /** @return The getter or the source field, or null if nothing matches the setter. */
+        Member getGetter() {
+            return getter;
+        }
+
+        /** @return The setter or the destination field. */
+        Member getSetter() {
+            return setter;
+        }
+
+        /** @return The name of the destination property, "title" for setTitle(). */
+        String getName() {
+            return name;
+        }
+
+        /** Read the property on the source object. */
+        Object get(Object source) {
+            return getterAccessor.apply(source);
+        }
+
+        /** Write the property on the destination object. */
+        void set(Object destination, Object value) {
+            setterAccessor.accept(destination, value);
+        }
+
+        /**
+         * Read the property on the destination object, to update its current value.
+         * @return The current value, or null if the destination has no getter for the property.
+         */
+        Object getCurrent(Object destination) {
+            Function<Object, Object> accessor = currentValueAccessor;
+            if (accessor == null) {
+                accessor = currentValueAccessor();
+                currentValueAccessor = accessor;
+            }
+            return accessor.apply(destination);
+        }
+
+        private Function<Object, Object> currentValueAccessor() {
+            if (setter instanceof Field) return PropertyAccessors.getter((Field) setter);
+            Method getter = parameterType == null ? null
+                    : findGetter(setter.getDeclaringClass(), setter.getName().substring(3), null);
+            if (getter == null) return NO_VALUE;
+            return PropertyAccessors.getter(getter);
+        }
+
+        /**
+         * @return A copier moving the value without boxing it, if both the getter and the setter
+         * are primitive with compatible types, null otherwise.
+         */
+        PrimitiveCopiers.PrimitiveCopier getPrimitiveCopier() {
+            return primitiveCopier;
+        }
+
+        /** @return The converter to apply to the value, if the getter and setter types don't match. */
+        Converter<Object, Object> getConverter() {
+            return converter;
+        }
+
+        Type getGenericParameterType() {
+            return genericParameterType;
+        }
+
+        Class<?> getParameterType() {
+            return parameterType;
+        }
+    }
+
+    /**
+     * Key of the plan cache, a (source class, destination class) pair, with the projection of pruned plans.
+     * Pairs having a generated mapper also have a reflective plan, under its own key.
+     */
+    static final class Key {
+
+        private final Class<?> sourceClass;
+
+        private final Class<?> destinationClass;
+
+        private final Projection projection;
+
+        private final boolean reflective;
+
+        Key(Class<?> sourceClass, Class<?> destinationClass) {
+            this(sourceClass, destinationClass, null, false);
+        }
+
+        Key(Class<?> sourceClass, Class<?> destinationClass, Projection projection) {
+            this(sourceClass, destinationClass, projection, false);
+        }
+
+        private Key(Class<?> sourceClass, Class<?> destinationClass, Projection projection, boolean reflective) {
+            this.sourceClass = sourceClass;
+            this.destinationClass = destinationClass;
+            this.projection = projection;
+            this.reflective = reflective;
+        }
+
+        /** @return The key of the reflective plan of a pair having a generated mapper. */
+        static Key reflective(Class<?> sourceClass, Class<?> destinationClass) {
+            return new Key(sourceClass, destinationClass, null, true);
+        }
+
+        /** @return True for the key of a plan pruned by a projection. */
+        boolean isProjected() {
+            return projection != null;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return sourceClass == key.sourceClass && destinationClass == key.destinationClass
+                    && (projection == null ? key.projection == null : projection.equals(key.projection))
+                    && reflective == key.reflective;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * sourceClass.hashCode() + destinationClass.hashCode())
+                    + (projection == null ? 0 : projection.hashCode())) + (reflective ? 1 : 0);
+        }
+    }
+}
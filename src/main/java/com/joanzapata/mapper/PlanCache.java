@@ -0,0 +1,232 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Mapping plans persisted in a file, so that a new JVM doesn't have to look for the getters
+ * matching the setters again. Each entry is keyed by the names of its classes and stores a
+ * fingerprint of their public methods: an entry is only used if its classes haven't changed.
+ * <p>
+ * One plan per line: {@code source|destination|fingerprint|setter(params)=getter;...}
+ */
+final class PlanCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(PlanCache.class);
+
+    private static final String HEADER = "# simple-mapper plan cache v1";
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final File file;
+
+    /** "source|destination" -> rest of the line, read once when the cache is created */
+    private final Map<String, String> entries;
+
+    PlanCache(File file) {
+        this.file = file;
+        this.entries = file.exists() ? read(file) : Collections.<String, String>emptyMap();
+    }
+
+    /**
+     * Rebuild the plan of the given pair from the file.
+     * @return The plan, or null if not in the file, or if one of the classes has changed since.
+     */
+    MappingPlan restore(Class<?> sourceClass, Class<?> destinationClass, ConverterRegistry converters,
+                        CustomMappers customMappers) {
+        String entry = entries.get(sourceClass.getName() + '|' + destinationClass.getName());
+        if (entry == null) return null;
+
+        String[] parts = entry.split("\\|", -1);
+        if (!parts[0].equals(fingerprint(sourceClass, destinationClass))) return null;
+
+        try {
+            List<MappingPlan.PropertyMapping> properties = new ArrayList<MappingPlan.PropertyMapping>();
+            if (!parts[1].isEmpty()) {
+                for (String property : parts[1].split(";")) {
+                    int equals = property.indexOf('=');
+                    Method setter = findSetter(destinationClass, property.substring(0, equals));
+                    String getterName = property.substring(equals + 1);
+                    Method getter = getterName.isEmpty() ? null : sourceClass.getMethod(getterName);
+                    properties.add(new MappingPlan.PropertyMapping(getter, setter, converters, customMappers));
+                }
+            }
+            return MappingPlan.restored(sourceClass, destinationClass, properties);
+        } catch (Exception e) {
+            logger.debug("Unable to restore the plan {} -> {}, compile it", sourceClass.getName(), destinationClass.getName(), e);
+            return null;
+        }
+    }
+
+    /** Write the given plans to the file, replacing its content. */
+    void save(Collection<MappingPlan> plans) {
+        Map<String, String> lines = new HashMap<String, String>(entries);
+        for (MappingPlan plan : plans) {
+            // Only getters and setters can be restored
+            if (plan.getGeneratedMapper() != null || plan.usesFields()) continue;
+            lines.put(plan.getSourceClass().getName() + '|' + plan.getDestinationClass().getName(), format(plan));
+        }
+
+        BufferedWriter writer = null;
+        try {
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), UTF_8));
+            writer.write(HEADER);
+            writer.newLine();
+            for (Map.Entry<String, String> line : lines.entrySet()) {
+                writer.write(line.getKey() + '|' + line.getValue());
+                writer.newLine();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unable to write the plan cache " + file, e);
+        } finally {
+            closeQuietly(writer);
+        }
+    }
+
+    private static String format(MappingPlan plan) {
+        StringBuilder builder = new StringBuilder();
+        builder.append(fingerprint(plan.getSourceClass(), plan.getDestinationClass())).append('|');
+        List<MappingPlan.PropertyMapping> properties = plan.getProperties();
+        for (int i = 0; i < properties.size(); i++) {
+            MappingPlan.PropertyMapping property = properties.get(i);
+            if (i > 0) builder.append(';');
+            Method setter = (Method) property.getSetter();
+            builder.append(setter.getName()).append('(');
+            Class<?>[] parameterTypes = setter.getParameterTypes();
+            for (int j = 0; j < parameterTypes.length; j++) {
+                if (j > 0) builder.append(',');
+                builder.append(parameterTypes[j].getName());
+            }
+            builder.append(")=");
+            if (property.getGetter() != null) builder.append(property.getGetter().getName());
+        }
+        return builder.toString();
+    }
+
+    /** @param signature The setter as "name(type,type)". */
+    private static Method findSetter(Class<?> destinationClass, String signature) throws Exception {
+        int parenthesis = signature.indexOf('(');
+        String parameters = signature.substring(parenthesis + 1, signature.length() - 1);
+        List<Class<?>> parameterTypes = new ArrayList<Class<?>>();
+        if (!parameters.isEmpty()) {
+            for (String parameter : parameters.split(",")) {
+                parameterTypes.add(loadClass(parameter, destinationClass.getClassLoader()));
+            }
+        }
+        return destinationClass.getMethod(signature.substring(0, parenthesis),
+                parameterTypes.toArray(new Class<?>[parameterTypes.size()]));
+    }
+
+    private static Class<?> loadClass(String name, ClassLoader classLoader) throws ClassNotFoundException {
+        if (name.equals("byte")) return byte.class;
+        if (name.equals("short")) return short.class;
+        if (name.equals("int")) return int.class;
+        if (name.equals("long")) return long.class;
+        if (name.equals("float")) return float.class;
+        if (name.equals("double")) return double.class;
+        if (name.equals("boolean")) return boolean.class;
+        if (name.equals("char")) return char.class;
+        return Class.forName(name, false, classLoader);
+    }
+
+    /**
+     * Hash of the public methods of both classes, independent of the order they are listed in.
+     * Any change of a name, a parameter or a return type changes it.
+     */
+    static String fingerprint(Class<?> sourceClass, Class<?> destinationClass) {
+        return Long.toHexString(fingerprint(sourceClass)) + '-' + Long.toHexString(fingerprint(destinationClass));
+    }
+
+    private static long fingerprint(Class<?> type) {
+        long fingerprint = 0;
+        for (Method method : type.getMethods()) {
+            long hash = 0xcbf29ce484222325L;
+            hash = hash(hash, method.getName());
+            hash = hash(hash, method.getReturnType().getName());
+            for (Class<?> parameterType : method.getParameterTypes()) {
+                hash = hash(hash, parameterType.getName());
+            }
+            fingerprint += hash * 0x9E3779B97F4A7C15L;
+        }
+        return fingerprint;
+    }
+
+    /** FNV-1a */
+    private static long hash(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return (hash ^ ',') * 0x100000001b3L;
+    }
+
+    private static Map<String, String> read(File file) {
+        Map<String, String> entries = new HashMap<String, String>();
+        BufferedReader reader = null;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new FileInputStream(file), UTF_8));
+            if (!HEADER.equals(reader.readLine())) {
+                logger.warn("Ignoring the plan cache {}, unknown format", file);
+                return entries;
+            }
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int first = line.indexOf('|');
+                int second = first < 0 ? -1 : line.indexOf('|', first + 1);
+                if (second < 0) continue;
+                entries.put(line.substring(0, second), line.substring(second + 1));
+            }
+        } catch (IOException e) {
+            logger.warn("Unable to read the plan cache {}, ignore it", file, e);
+        } finally {
+            closeQuietly(reader);
+        }
+        return entries;
+    }
+
+    private static void closeQuietly(Closeable closeable) {
+        if (closeable == null) return;
+        try {
+            closeable.close();
+        } catch (IOException e) {
+            // Nothing to do
+        }
+    }
+}
@@ -0,0 +1,315 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.function.ObjDoubleConsumer;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.ToDoubleFunction;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * Copies primitive properties from the getter to the setter without boxing the value,
+ * when the getter type is the setter type or can be widened to it (int to long...).
+ * The getter is linked with the setter type as return type, the LambdaMetafactory
+ * takes care of the widening. When a field is involved, the getter and setter handles
+ * are combined into a single handle instead.
+ */
+final class PrimitiveCopiers {
+
+    private static final Logger logger = LoggerFactory.getLogger(PrimitiveCopiers.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /** Copies a property of the source object into the destination object. */
+    interface PrimitiveCopier {
+        void copy(Object source, Object destination);
+    }
+
+    interface FloatGetter {
+        float get(Object source);
+    }
+
+    interface BooleanGetter {
+        boolean get(Object source);
+    }
+
+    interface ByteSetter {
+        void set(Object destination, byte value);
+    }
+
+    interface ShortSetter {
+        void set(Object destination, short value);
+    }
+
+    interface CharSetter {
+        void set(Object destination, char value);
+    }
+
+    interface FloatSetter {
+        void set(Object destination, float value);
+    }
+
+    interface BooleanSetter {
+        void set(Object destination, boolean value);
+    }
+
+    private PrimitiveCopiers() {
+    }
+
+    /**
+     * @return A copier from the getter to the setter, or null if their types aren't
+     * primitives or the getter type can't be widened to the setter type.
+     */
+    @SuppressWarnings("unchecked")
+    static PrimitiveCopier of(Method getter, Method setter) {
+        Class<?> from = getter.getReturnType();
+        Class<?> to = setter.getParameterTypes()[0];
+        if (!isWidening(from, to) || !PropertyAccessors.isLinkable(getter) || !PropertyAccessors.isLinkable(setter)) {
+            return null;
+        }
+        try {
+            if (to == int.class) {
+                return new IntCopier((ToIntFunction<Object>) getter(getter, ToIntFunction.class, "applyAsInt", to),
+                        (ObjIntConsumer<Object>) setter(setter, ObjIntConsumer.class, "accept"));
+            } else if (to == long.class) {
+                return new LongCopier((ToLongFunction<Object>) getter(getter, ToLongFunction.class, "applyAsLong", to),
+                        (ObjLongConsumer<Object>) setter(setter, ObjLongConsumer.class, "accept"));
+            } else if (to == double.class) {
+                return new DoubleCopier((ToDoubleFunction<Object>) getter(getter, ToDoubleFunction.class, "applyAsDouble", to),
+                        (ObjDoubleConsumer<Object>) setter(setter, ObjDoubleConsumer.class, "accept"));
+            } else if (to == float.class) {
+                return new FloatCopier((FloatGetter) getter(getter, FloatGetter.class, "get", to),
+                        (FloatSetter) setter(setter, FloatSetter.class, "set"));
+            } else if (to == boolean.class) {
+                return new BooleanCopier((BooleanGetter) getter(getter, BooleanGetter.class, "get", to),
+                        (BooleanSetter) setter(setter, BooleanSetter.class, "set"));
+            } else if (to == byte.class) {
+                // Only a byte can be widened to a byte, the int conversion is lossless
+                return new ByteCopier((ToIntFunction<Object>) getter(getter, ToIntFunction.class, "applyAsInt", int.class),
+                        (ByteSetter) setter(setter, ByteSetter.class, "set"));
+            } else if (to == short.class) {
+                return new ShortCopier((ToIntFunction<Object>) getter(getter, ToIntFunction.class, "applyAsInt", int.class),
+                        (ShortSetter) setter(setter, ShortSetter.class, "set"));
+            } else {
+                return new CharCopier((ToIntFunction<Object>) getter(getter, ToIntFunction.class, "applyAsInt", int.class),
+                        (CharSetter) setter(setter, CharSetter.class, "set"));
+            }
+        } catch (Throwable e) {
+            logger.debug("Unable to link {} -> {}, the value will be boxed", getter, setter, e);
+            return null;
+        }
+    }
+
+    /**
+     * Same as {@link #of(Method, Method)}, where the getter and the setter may be fields.
+     */
+    static PrimitiveCopier of(Member getter, Member setter) {
+        if (getter instanceof Method && setter instanceof Method) return of((Method) getter, (Method) setter);
+        Class<?> from = PropertyAccessors.valueType(getter);
+        Class<?> to = setter instanceof Field ? ((Field) setter).getType() : ((Method) setter).getParameterTypes()[0];
+        if (!isWidening(from, to)) return null;
+        try {
+            // (destination, source) -> setter(destination, getter(source)), asType() widens the value
+            MethodHandle get = PropertyAccessors.getterHandle(getter).asType(MethodType.methodType(to, Object.class));
+            MethodHandle set = PropertyAccessors.setterHandle(setter).asType(MethodType.methodType(void.class, Object.class, to));
+            return new HandleCopier(MethodHandles.collectArguments(set, 1, get));
+        } catch (RuntimeException e) {
+            logger.debug("Unable to link {} -> {}, the value will be boxed", getter, setter, e);
+            return null;
+        }
+    }
+
+    /** Identity and widening primitive conversions, JLS 5.1.2 */
+    static boolean isWidening(Class<?> from, Class<?> to) {
+        if (!from.isPrimitive() || !to.isPrimitive() || from == void.class) return false;
+        if (from == to) return true;
+        if (from == byte.class) return to == short.class || to == int.class || to == long.class || to == float.class || to == double.class;
+        if (from == short.class || from == char.class) return to == int.class || to == long.class || to == float.class || to == double.class;
+        if (from == int.class) return to == long.class || to == float.class || to == double.class;
+        if (from == long.class) return to == float.class || to == double.class;
+        if (from == float.class) return to == double.class;
+        return false;
+    }
+
+    private static Object getter(Method getter, Class<?> samClass, String samName, Class<?> returnType) throws Throwable {
+        return LambdaMetafactory.metafactory(LOOKUP, samName, MethodType.methodType(samClass),
+                MethodType.methodType(returnType, Object.class), LOOKUP.unreflect(getter),
+                MethodType.methodType(returnType, getter.getDeclaringClass())).getTarget().invoke();
+    }
+
+    private static Object setter(Method setter, Class<?> samClass, String samName) throws Throwable {
+        Class<?> valueType = setter.getParameterTypes()[0];
+        return LambdaMetafactory.metafactory(LOOKUP, samName, MethodType.methodType(samClass),
+                MethodType.methodType(void.class, Object.class, valueType), LOOKUP.unreflect(setter),
+                MethodType.methodType(void.class, setter.getDeclaringClass(), valueType)).getTarget().invoke();
+    }
+
+    private static final class HandleCopier implements PrimitiveCopier {
+        private final MethodHandle copy;
+
+        HandleCopier(MethodHandle copy) {
+            this.copy = copy;
+        }
+
+        @Override
+        public void copy(Object source, Object destination) {
+            try {
+                copy.invokeExact(destination, source);
+            } catch (RuntimeException e) {
+                throw e;
+            } catch (Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new RuntimeException(e);
+            }
+        }
+    }
+
+    private static final class IntCopier implements PrimitiveCopier {
+        private final ToIntFunction<Object> getter;
+        private final ObjIntConsumer<Object> setter;
+
+        IntCopier(ToIntFunction<Object> getter, ObjIntConsumer<Object> setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public void copy(Object source, Object destination) {
+            setter.accept(destination, getter.applyAsInt(source));
+        }
+    }
+
+    private static final class LongCopier implements PrimitiveCopier {
+        private final ToLongFunction<Object> getter;
+        private final ObjLongConsumer<Object> setter;
+
+        LongCopier(ToLongFunction<Object> getter, ObjLongConsumer<Object> setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public void copy(Object source, Object destination) {
+            setter.accept(destination, getter.applyAsLong(source));
+        }
+    }
+
+    private static final class DoubleCopier implements PrimitiveCopier {
+        private final ToDoubleFunction<Object> getter;
+        private final ObjDoubleConsumer<Object> setter;
+
+        DoubleCopier(ToDoubleFunction<Object> getter, ObjDoubleConsumer<Object> setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public void copy(Object source, Object destination) {
+            setter.accept(destination, getter.applyAsDouble(source));
+        }
+    }
+
+    private static final class FloatCopier implements PrimitiveCopier {
+        private final FloatGetter getter;
+        private final FloatSetter setter;
+
+        FloatCopier(FloatGetter getter, FloatSetter setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public void copy(Object source, Object destination) {
+            setter.set(destination, getter.get(source));
+        }
+    }
+
+    private static final class BooleanCopier implements PrimitiveCopier {
+        private final BooleanGetter getter;
+        private final BooleanSetter setter;
+
+        BooleanCopier(BooleanGetter getter, BooleanSetter setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public void copy(Object source, Object destination) {
+            setter.set(destination, getter.get(source));
+        }
+    }
+
+    private static final class ByteCopier implements PrimitiveCopier {
+        private final ToIntFunction<Object> getter;
+        private final ByteSetter setter;
+
+        ByteCopier(ToIntFunction<Object> getter, ByteSetter setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public void copy(Object source, Object destination) {
+            setter.set(destination, (byte) getter.applyAsInt(source));
+        }
+    }
+
+    private static final class ShortCopier implements PrimitiveCopier {
+        private final ToIntFunction<Object> getter;
+        private final ShortSetter setter;
+
+        ShortCopier(ToIntFunction<Object> getter, ShortSetter setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public void copy(Object source, Object destination) {
+            setter.set(destination, (short) getter.applyAsInt(source));
+        }
+    }
+
+    private static final class CharCopier implements PrimitiveCopier {
+        private final ToIntFunction<Object> getter;
+        private final CharSetter setter;
+
+        CharCopier(ToIntFunction<Object> getter, CharSetter setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+
+        @Override
+        public void copy(Object source, Object destination) {
+            setter.set(destination, (char) getter.applyAsInt(source));
+        }
+    }
+}
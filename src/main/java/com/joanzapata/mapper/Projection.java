@@ -0,0 +1,161 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The destination properties to map, see {@link Mapper#project(Object, Class, Projection)}.
+ * Properties left out are never read from the source, and the objects they reference are
+ * never mapped. Projections are compared by value: the pruned plans are cached for each
+ * projection, so keep the number of different projections reasonable.
+ */
+public final class Projection {
+
+    private static final int UNLIMITED = -1;
+
+    private static final Object ALL = new Object();
+
+    /** Projected properties by name, null for all of them */
+    private final Map<String, Projection> properties;
+
+    /** Number of levels of properties still mapped from here, or UNLIMITED */
+    private final int depth;
+
+    private final int hashCode;
+
+    /** Projection of the properties when they're all projected, created on first use */
+    private Projection allProperties;
+
+    private Projection(Map<String, Projection> properties, int depth) {
+        this.properties = properties;
+        this.depth = depth;
+        this.hashCode = 31 * (properties == null ? 0 : properties.hashCode()) + depth;
+    }
+
+    /**
+     * Map the given properties only, with all the properties of the objects they reference.
+     * @param paths Names of the destination properties, nested properties are separated
+     *              by dots: "entries.phoneNumber" maps the phone number of each entry.
+     * @return The projection.
+     */
+    @SuppressWarnings("unchecked")
+    public static Projection of(String... paths) {
+        Map<String, Object> tree = new LinkedHashMap<String, Object>();
+        for (String path : paths) {
+            Map<String, Object> node = tree;
+            String[] names = path.split("\\.");
+            for (int i = 0; i < names.length; i++) {
+                Object child = node.get(names[i]);
+                if (i == names.length - 1) {
+                    node.put(names[i], ALL);
+                } else if (child == ALL) {
+                    break;
+                } else {
+                    if (child == null) {
+                        child = new LinkedHashMap<String, Object>();
+                        node.put(names[i], child);
+                    }
+                    node = (Map<String, Object>) child;
+                }
+            }
+        }
+        return build(tree, UNLIMITED);
+    }
+
+    /**
+     * Map all the properties, up to the given depth. 1 maps the properties of the root object
+     * which don't reference other objects: numbers, strings, enums, immutable values and
+     * collections of them. 2 also maps the objects referenced by the root object, etc.
+     * @param depth The number of levels of properties to map, at least 1.
+     * @return The projection.
+     */
+    public static Projection maxDepth(int depth) {
+        return new Projection(null, UNLIMITED).withMaxDepth(depth);
+    }
+
+    /**
+     * @param depth The number of levels of properties to map, see {@link #maxDepth(int)}.
+     * @return The same projection, limited to the given depth.
+     */
+    public Projection withMaxDepth(int depth) {
+        if (depth < 1) throw new IllegalArgumentException("The depth must be at least 1, was " + depth);
+        return limit(depth);
+    }
+
+    private Projection limit(int depth) {
+        if (properties == null) return new Projection(null, depth);
+        Map<String, Projection> limited = new HashMap<String, Projection>();
+        for (Map.Entry<String, Projection> property : properties.entrySet()) {
+            limited.put(property.getKey(), property.getValue().limit(depth - 1));
+        }
+        return new Projection(Collections.unmodifiableMap(limited), depth);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Projection build(Map<String, Object> tree, int depth) {
+        Map<String, Projection> properties = new HashMap<String, Projection>();
+        for (Map.Entry<String, Object> property : tree.entrySet()) {
+            properties.put(property.getKey(), property.getValue() == ALL
+                    ? new Projection(null, depth)
+                    : build((Map<String, Object>) property.getValue(), depth));
+        }
+        return new Projection(Collections.unmodifiableMap(properties), depth);
+    }
+
+    /** @return True if the property of the given name is mapped at this level. */
+    boolean includes(String name) {
+        return properties == null || properties.containsKey(name);
+    }
+
+    /** @return True if the properties referencing other objects are not mapped at this level. */
+    boolean isLastLevel() {
+        return depth != UNLIMITED && depth <= 1;
+    }
+
+    /** @return The projection of the object referenced by the given property. */
+    Projection child(String name) {
+        if (properties != null) return properties.get(name);
+        if (depth == UNLIMITED) return this;
+        // Racy but harmless, projections are immutable
+        Projection child = allProperties;
+        if (child == null) {
+            child = new Projection(null, depth - 1);
+            allProperties = child;
+        }
+        return child;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Projection)) return false;
+        Projection projection = (Projection) o;
+        return depth == projection.depth && hashCode == projection.hashCode
+                && (properties == null ? projection.properties == null : properties.equals(projection.properties));
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+}
@@ -0,0 +1,43 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+/**
+ * How the properties of a class are discovered, see {@link Mapper#propertyAccess(Class, PropertyAccess)}.
+ * Fields are paired by name, with the same suffix rules as the getters and setters.
+ */
+public enum PropertyAccess {
+
+    /** Getters and setters only, the default. */
+    METHODS,
+
+    /** Fields only, whatever their visibility. Final fields are never written. */
+    FIELDS,
+
+    /** Getters and setters, and the fields of the properties without any. */
+    METHODS_AND_FIELDS;
+
+    boolean usesMethods() {
+        return this != FIELDS;
+    }
+
+    boolean usesFields() {
+        return this != METHODS;
+    }
+}
@@ -0,0 +1,275 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.lang.reflect.Type;
+import java.lang.reflect.Modifier;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Turns getter and setter methods into direct accessors, so the mapping loop doesn't
+ * go through Method.invoke(). The accessors are spun with the LambdaMetafactory, and
+ * fall back to reflection when the method can't be linked from here (non public class,
+ * class not visible from this class loader, ...). Fields are accessed through the
+ * method handles of the field itself, which the LambdaMetafactory can't link.
+ */
+final class PropertyAccessors {
+
+    private static final Logger logger = LoggerFactory.getLogger(PropertyAccessors.class);
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final MethodType GETTER_SAM = MethodType.methodType(Object.class, Object.class);
+
+    private static final MethodType SETTER_SAM = MethodType.methodType(void.class, Object.class, Object.class);
+
+    private PropertyAccessors() {
+    }
+
+    /**
+     * @param getter A public no-arg method.
+     * @return A function calling the getter on its argument.
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> getter(Method getter) {
+        if (isLinkable(getter)) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(getter);
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "apply",
+                        MethodType.methodType(Function.class), GETTER_SAM, handle,
+                        MethodType.methodType(boxed(getter.getReturnType()), getter.getDeclaringClass()));
+                return (Function<Object, Object>) callSite.getTarget().invoke();
+            } catch (Throwable e) {
+                logger.debug("Unable to link {}, falling back to reflection", getter, e);
+            }
+        }
+        return new ReflectiveGetter(getter);
+    }
+
+    /**
+     * @param setter A public single-arg method.
+     * @return A consumer calling the setter on its first argument with the second one.
+     */
+    @SuppressWarnings("unchecked")
+    static BiConsumer<Object, Object> setter(Method setter) {
+        if (isLinkable(setter)) {
+            try {
+                MethodHandle handle = LOOKUP.unreflect(setter);
+                CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                        MethodType.methodType(BiConsumer.class), SETTER_SAM, handle,
+                        MethodType.methodType(void.class, setter.getDeclaringClass(),
+                                boxed(setter.getParameterTypes()[0])));
+                return (BiConsumer<Object, Object>) callSite.getTarget().invoke();
+            } catch (Throwable e) {
+                logger.debug("Unable to link {}, falling back to reflection", setter, e);
+            }
+        }
+        return new ReflectiveSetter(setter);
+    }
+
+    /**
+     * @param field A field made accessible with {@link #makeAccessible(Field)}.
+     * @return A function reading the field on its argument.
+     */
+    static Function<Object, Object> getter(Field field) {
+        return new FieldGetter(getterHandle(field).asType(GETTER_SAM));
+    }
+
+    /**
+     * @param field A non final field made accessible with {@link #makeAccessible(Field)}.
+     * @return A consumer writing the field of its first argument with the second one.
+     */
+    static BiConsumer<Object, Object> setter(Field field) {
+        return new FieldSetter(setterHandle(field).asType(SETTER_SAM));
+    }
+
+    /** @return A handle reading the field, or calling the getter. */
+    static MethodHandle getterHandle(Member getter) {
+        try {
+            if (getter instanceof Field) return LOOKUP.unreflectGetter((Field) getter);
+            return LOOKUP.unreflect((Method) getter);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to access " + getter, e);
+        }
+    }
+
+    /** @return A handle writing the field, or calling the setter. */
+    static MethodHandle setterHandle(Member setter) {
+        try {
+            if (setter instanceof Field) return LOOKUP.unreflectSetter((Field) setter);
+            return LOOKUP.unreflect((Method) setter);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Unable to access " + setter, e);
+        }
+    }
+
+    /** @return False if the field can't be accessed from here, in a module which isn't open for instance. */
+    static boolean makeAccessible(Field field) {
+        try {
+            field.setAccessible(true);
+            return true;
+        } catch (RuntimeException e) {
+            logger.debug("Unable to access {}, ignore it", field, e);
+            return false;
+        }
+    }
+
+    /** @return The type of the value read by the getter or the field. */
+    static Class<?> valueType(Member getter) {
+        return getter instanceof Field ? ((Field) getter).getType() : ((Method) getter).getReturnType();
+    }
+
+    /** @return The generic type of the value read by the getter or the field. */
+    static Type genericValueType(Member getter) {
+        return getter instanceof Field ? ((Field) getter).getGenericType() : ((Method) getter).getGenericReturnType();
+    }
+
+    /**
+     * The generated accessor calls the method directly, so the method and all
+     * the types it mentions must be public and visible from the library class loader.
+     */
+    static boolean isLinkable(Method method) {
+        if (!Modifier.isPublic(method.getModifiers())) return false;
+        if (!isVisible(method.getDeclaringClass()) || !isVisible(method.getReturnType())) return false;
+        for (Class<?> parameterType : method.getParameterTypes())
+            if (!isVisible(parameterType)) return false;
+        return true;
+    }
+
+    private static boolean isVisible(Class<?> type) {
+        while (type.isArray()) type = type.getComponentType();
+        if (type.isPrimitive()) return true;
+        if (!Modifier.isPublic(type.getModifiers())) return false;
+        try {
+            return Class.forName(type.getName(), false, PropertyAccessors.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException e) {
+            return false;
+        }
+    }
+
+    static Class<?> boxed(Class<?> type) {
+        if (type == byte.class) return Byte.class;
+        if (type == short.class) return Short.class;
+        if (type == int.class) return Integer.class;
+        if (type == long.class) return Long.class;
+        if (type == float.class) return Float.class;
+        if (type == double.class) return Double.class;
+        if (type == boolean.class) return Boolean.class;
+        if (type == char.class) return Character.class;
+        return type;
+    }
+
+    /** Rethrow what the accessed method has thrown, as the generated accessors would do. */
+    private static RuntimeException unwrap(Exception e) {
+        Throwable cause = e instanceof InvocationTargetException ? e.getCause() : e;
+        if (cause instanceof Error) throw (Error) cause;
+        return cause instanceof RuntimeException ? (RuntimeException) cause : new RuntimeException(cause);
+    }
+
+    /** Rethrow what a method handle has thrown, unchecked. */
+    private static RuntimeException unchecked(Throwable throwable) {
+        if (throwable instanceof Error) throw (Error) throwable;
+        return throwable instanceof RuntimeException ? (RuntimeException) throwable : new RuntimeException(throwable);
+    }
+
+    private static final class FieldGetter implements Function<Object, Object> {
+
+        private final MethodHandle handle;
+
+        FieldGetter(MethodHandle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public Object apply(Object source) {
+            try {
+                return handle.invokeExact(source);
+            } catch (Throwable e) {
+                throw unchecked(e);
+            }
+        }
+    }
+
+    private static final class FieldSetter implements BiConsumer<Object, Object> {
+
+        private final MethodHandle handle;
+
+        FieldSetter(MethodHandle handle) {
+            this.handle = handle;
+        }
+
+        @Override
+        public void accept(Object destination, Object value) {
+            try {
+                handle.invokeExact(destination, value);
+            } catch (Throwable e) {
+                throw unchecked(e);
+            }
+        }
+    }
+
+    private static final class ReflectiveGetter implements Function<Object, Object> {
+
+        private final Method getter;
+
+        ReflectiveGetter(Method getter) {
+            this.getter = getter;
+        }
+
+        @Override
+        public Object apply(Object source) {
+            try {
+                return getter.invoke(source);
+            } catch (Exception e) {
+                throw unwrap(e);
+            }
+        }
+    }
+
+    private static final class ReflectiveSetter implements BiConsumer<Object, Object> {
+
+        private final Method setter;
+
+        ReflectiveSetter(Method setter) {
+            this.setter = setter;
+        }
+
+        @Override
+        public void accept(Object destination, Object value) {
+            try {
+                setter.invoke(destination, value);
+            } catch (Exception e) {
+                throw unwrap(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.joanzapata.mapper.MapperUtil.findBestDestinationType;
+
+/**
+ * A mapper bound to a pair of classes, see {@link Mapper#forTypes(Class, Class)}.
+ * The custom mapper, the destination class and the mapping plan are resolved once,
+ * so mapping a source skips the dispatch of {@link Mapper#map(Object, Class)}.
+ * This class is thread-safe.
+ * @param <S> Source type
+ * @param <D> Destination type
+ */
+public final class TypedMapper<S, D> {
+
+    private final Mapper mapper;
+
+    private final Class<S> sourceClass;
+
+    private final Class<D> destinationClass;
+
+    /** The custom mapper to use, or NONE */
+    private final CustomMappers.Match customMapper;
+
+    /** The class to instantiate, null if the source class isn't mapped using its getters */
+    private final Class<D> bestDestinationClass;
+
+    private final MappingPlan plan;
+
+    TypedMapper(Mapper mapper, Class<S> sourceClass, Class<D> destinationClass) {
+        this.mapper = mapper;
+        this.sourceClass = sourceClass;
+        this.destinationClass = destinationClass;
+        this.customMapper = mapper.findCustomMapper(sourceClass, destinationClass);
+        if (customMapper == CustomMappers.NONE && mapper.isBean(sourceClass)) {
+            this.bestDestinationClass = findBestDestinationType(sourceClass, destinationClass, mapper.newContext());
+            this.plan = mapper.getPlan(sourceClass, bestDestinationClass);
+        } else {
+            this.bestDestinationClass = null;
+            this.plan = null;
+        }
+    }
+
+    /**
+     * Map the source object with the destination class.
+     * @param source The source object.
+     * @return A destination instance, null if the source is null.
+     */
+    public D map(S source) {
+        return map(source, mapper.newContext());
+    }
+
+    /**
+     * Map all the source objects, objects shared between them being mapped only once.
+     * @param sources The source objects.
+     * @return The destination instances, in the same order, without the null ones.
+     */
+    public List<D> mapList(Collection<? extends S> sources) {
+        MappingContext context = mapper.newContext();
+        List<D> destinations = new ArrayList<D>(sources.size());
+        for (S source : sources) {
+            D destination = map(source, context);
+            if (destination != null) destinations.add(destination);
+        }
+        return destinations;
+    }
+
+    @SuppressWarnings("unchecked")
+    private D map(S source, MappingContext context) {
+        if (source == null) return null;
+        // Subclasses may have another destination class or another plan
+        if (source.getClass() != sourceClass) return mapper.nominalMap(source, destinationClass, context);
+        if (customMapper != CustomMappers.NONE) return (D) customMapper.map(source, context);
+        if (plan == null) return mapper.nominalMap(source, destinationClass, context);
+        D alreadyMapped = context.getAlreadyMapped(source);
+        if (alreadyMapped != null) return alreadyMapped;
+        return mapper.mapBean(source, bestDestinationClass, plan, context);
+    }
+
+    public Class<S> getSourceClass() {
+        return sourceClass;
+    }
+
+    public Class<D> getDestinationClass() {
+        return destinationClass;
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class IdentityTableTest {
+
+    @Test
+    public void emptyTable() {
+        assertNull(new IdentityTable().get("key"));
+    }
+
+    @Test
+    public void keysAreComparedByReference() {
+        IdentityTable table = new IdentityTable();
+        String key = new String("key");
+        table.put(key, "value");
+        assertEquals("value", table.get(key));
+        assertNull(table.get(new String("key")));
+    }
+
+    @Test
+    public void putReplacesValue() {
+        IdentityTable table = new IdentityTable();
+        Object key = new Object();
+        table.put(key, "first");
+        table.put(key, "second");
+        assertEquals("second", table.get(key));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void growsPastLinearThreshold() {
+        IdentityTable table = new IdentityTable();
+        List<Object> keys = new ArrayList<Object>();
+        for (int i = 0; i < 10000; i++) {
+            Object key = new Object();
+            keys.add(key);
+            table.put(key, i);
+        }
+        assertEquals(10000, table.size());
+        for (int i = 0; i < keys.size(); i++) {
+            assertEquals(i, table.get(keys.get(i)));
+        }
+        assertNull(table.get(new Object()));
+    }
+
+    @Test
+    public void putAll() {
+        IdentityTable small = new IdentityTable();
+        IdentityTable big = new IdentityTable();
+        Object smallKey = new Object();
+        small.put(smallKey, "small");
+        for (int i = 0; i < 100; i++) big.put(new Object(), i);
+        big.putAll(small);
+        assertEquals("small", big.get(smallKey));
+        assertEquals(101, big.size());
+    }
+}
@@ -22,11 +22,21 @@ import com.joanzapata.mapper.model.Book;
 import com.joanzapata.mapper.model.BookDTO;
 import com.joanzapata.mapper.model.BookEntry;
 import com.joanzapata.mapper.model.BookEntryDTO;
+import com.joanzapata.mapper.model.ModelWithArrays;
+import com.joanzapata.mapper.model.ModelWithArraysDTO;
 import com.joanzapata.mapper.model.ModelWithCollection;
+import com.joanzapata.mapper.model.ModelWithCollectionTypes;
 import com.joanzapata.mapper.model.ModelWithEnum;
 import com.joanzapata.mapper.model.ModelWithEnumDTO;
+import com.joanzapata.mapper.model.ModelWithFields;
+import com.joanzapata.mapper.model.ModelWithFieldsDTO;
+import com.joanzapata.mapper.model.ModelWithPrimitives;
 import com.joanzapata.mapper.model.ModelWithSet;
+import com.joanzapata.mapper.model.ModelWithSomeAccessors;
 import com.joanzapata.mapper.model.ModelWithString;
+import com.joanzapata.mapper.model.ModelWithStringValues;
+import com.joanzapata.mapper.model.ModelWithTypedValues;
+import com.joanzapata.mapper.model.ModelWithWidePrimitives;
 import com.joanzapata.mapper.model.entry.AddressEntry;
 import com.joanzapata.mapper.model.entry.AddressEntryDTO;
 import com.joanzapata.mapper.model.entry.PhoneEntry;
@@ -34,13 +44,32 @@ import com.joanzapata.mapper.model.entry.PhoneEntryDTO;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.io.File;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
+import java.time.LocalDate;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Collectors;
 
 import static org.junit.Assert.*;
 
@@ -209,6 +238,23 @@ public class MapperTest {
         mapper.map(book, BookDTO.class);
     }
 
+    @Test
+    public void customMapperAddedAfterFirstMapping() {
+        Mapper mapper = new Mapper();
+        Book book = new Book(5L, "Book");
+        assertEquals("Book", mapper.map(book, BookDTO.class).getName());
+
+        mapper.customMapper(new CustomMapper<Book, BookDTO>() {
+            @Override
+            public BookDTO map(Book source, MappingContext mappingContext) {
+                final BookDTO bookDTO = new BookDTO();
+                bookDTO.setName("Fixed");
+                return bookDTO;
+            }
+        });
+        assertEquals("Fixed", mapper.map(book, BookDTO.class).getName());
+    }
+
     @Test
     public void singleObject() {
         Mapper mapper = new Mapper();
@@ -250,6 +296,143 @@ public class MapperTest {
         assertEquals(bookDTO, entry2DTO.getBookDTO());
     }
 
+    @Test
+    public void equalSourcesAreMappedSeparately() {
+        List<EqualBook> books = Arrays.asList(new EqualBook(1L, "First"), new EqualBook(1L, "Second"));
+        List<BookDTO> bookDTOs = new Mapper().map(books, BookDTO.class);
+        assertEquals("First", bookDTOs.get(0).getName());
+        assertEquals("Second", bookDTOs.get(1).getName());
+    }
+
+    @Test
+    public void treeModeMapsSharedObjectsTwice() {
+        Book book = new Book(1L, "Book");
+        BookEntry entry = new BookEntry(1, null);
+        book.setEntries(Arrays.asList(entry, entry));
+
+        BookDTO bookDTO = new Mapper().treeMode().map(book, BookDTO.class);
+
+        assertEquals(2, bookDTO.getEntries().size());
+        assertNotSame(bookDTO.getEntries().get(0), bookDTO.getEntries().get(1));
+        assertEquals(1, bookDTO.getEntries().get(1).getId());
+    }
+
+    @Test(expected = MaxDepthExceededException.class)
+    public void treeModeDetectsCycles() {
+        Book book = new Book(0L, "Book");
+        book.setEntries(Arrays.asList(new BookEntry(1, book)));
+        new Mapper().treeMode(50).map(book, BookDTO.class);
+    }
+
+    @Test
+    public void treeModeContextIsReusableAfterCycle() {
+        Book cyclicBook = new Book(0L, "Book");
+        cyclicBook.setEntries(Arrays.asList(new BookEntry(1, cyclicBook)));
+        Book book = new Book(0L, "Book");
+        book.setEntries(Arrays.asList(new BookEntry(1, null)));
+
+        // Both books are mapped with the same context
+        Iterator<BookDTO> bookDTOs = new Mapper().treeMode(2)
+                .mapIterator(Arrays.asList(cyclicBook, book).iterator(), BookDTO.class, 2);
+        try {
+            bookDTOs.next();
+            fail();
+        } catch (MaxDepthExceededException e) {
+            // Expected
+        }
+        assertEquals(1, bookDTOs.next().getEntries().size());
+    }
+
+    @Test
+    public void parallelListKeepsOrderAndSharedObjects() {
+        Book book = new Book(0L, "Book");
+        List<BookEntry> entries = new ArrayList<BookEntry>();
+        for (int i = 0; i < 1000; i++) entries.add(new BookEntry(i, book));
+        book.setEntries(entries);
+
+        List<BookEntryDTO> entryDTOs = new Mapper().parallel(10).map(entries, BookEntryDTO.class);
+
+        assertEquals(1000, entryDTOs.size());
+        BookDTO bookDTO = entryDTOs.get(0).getBookDTO();
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, entryDTOs.get(i).getId());
+            assertSame(bookDTO, entryDTOs.get(i).getBookDTO());
+        }
+        assertSame(entryDTOs.get(42), bookDTO.getEntries().get(42));
+    }
+
+    @Test
+    public void parallelMap() {
+        Map<Long, Book> in = new HashMap<Long, Book>();
+        for (long i = 0; i < 100; i++) in.put(i, new Book(i, "Book" + i));
+
+        Map<Long, BookDTO> out = new Mapper().parallel(10).map(in, Long.class, BookDTO.class);
+
+        assertEquals(100, out.size());
+        assertEquals("Book42", out.get(42L).getName());
+    }
+
+    @Test
+    public void parallelStreamCollector() {
+        Book book = new Book(0L, "Book");
+        List<BookEntry> entries = new ArrayList<BookEntry>();
+        for (int i = 0; i < 1000; i++) entries.add(new BookEntry(i, book));
+
+        List<BookEntryDTO> entryDTOs = entries.parallelStream().collect(new Mapper().toList(BookEntryDTO.class));
+
+        assertEquals(1000, entryDTOs.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, entryDTOs.get(i).getId());
+            assertSame(entryDTOs.get(0).getBookDTO(), entryDTOs.get(i).getBookDTO());
+        }
+    }
+
+    @Test
+    public void mapIteratorIsLazy() {
+        final List<Long> consumed = new ArrayList<Long>();
+        final Iterator<Book> books = Arrays.asList(new Book(1L, "Book1"), new Book(2L, "Book2")).iterator();
+        Iterator<Book> source = new Iterator<Book>() {
+            @Override
+            public boolean hasNext() {
+                return books.hasNext();
+            }
+
+            @Override
+            public Book next() {
+                Book book = books.next();
+                consumed.add(book.getId());
+                return book;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+
+        Iterator<BookDTO> bookDTOs = new Mapper().mapIterator(source, BookDTO.class);
+        assertTrue(consumed.isEmpty());
+        assertEquals(Long.valueOf(1), bookDTOs.next().getId());
+        assertEquals(Arrays.asList(1L), consumed);
+        assertEquals(Long.valueOf(2), bookDTOs.next().getId());
+        assertFalse(bookDTOs.hasNext());
+    }
+
+    @Test
+    public void mapStreamWithWindow() {
+        Book book = new Book(0L, "Book");
+        List<BookEntry> entries = Arrays.asList(new BookEntry(1, book), new BookEntry(2, book), new BookEntry(3, book));
+
+        List<BookEntryDTO> perElement = new Mapper().mapStream(entries.stream(), BookEntryDTO.class)
+                .collect(Collectors.<BookEntryDTO>toList());
+        assertNotSame(perElement.get(0).getBookDTO(), perElement.get(1).getBookDTO());
+
+        List<BookEntryDTO> windowed = new Mapper().mapStream(entries.stream(), BookEntryDTO.class, 2)
+                .collect(Collectors.<BookEntryDTO>toList());
+        assertSame(windowed.get(0).getBookDTO(), windowed.get(1).getBookDTO());
+        assertNotSame(windowed.get(1).getBookDTO(), windowed.get(2).getBookDTO());
+    }
+
     @Test
     public void inheritance() {
         Book book = createTestBook();
@@ -279,6 +462,45 @@ public class MapperTest {
         assertEquals(bookDTO, addressEntryDTO.getBookDTO());
     }
 
+    @Test
+    public void builtMapper() {
+        Mapper mapper = new MapperBuilder()
+                .mapping(AddressEntry.class, AddressEntryDTO.class)
+                .mapping(PhoneEntry.class, PhoneEntryDTO.class)
+                .build();
+
+        BookDTO bookDTO = mapper.map(createTestBook(), BookDTO.class);
+        assertTrue(bookDTO.getEntries().get(0) instanceof PhoneEntryDTO);
+        assertTrue(bookDTO.getEntries().get(1) instanceof AddressEntryDTO);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void builtMapperCantBeModified() {
+        new MapperBuilder().build().mapping(PhoneEntry.class, PhoneEntryDTO.class);
+    }
+
+    @Test
+    public void contextMappingsStayInContext() {
+        final Mapper entryMapper = new Mapper()
+                .mapping(AddressEntry.class, AddressEntryDTO.class);
+        Mapper mapper = new MapperBuilder()
+                .customMapper(new CustomMapper<Book, BookDTO>() {
+                    @Override
+                    public BookDTO map(Book source, MappingContext context) {
+                        context.addMapping(PhoneEntry.class, PhoneEntryDTO.class);
+                        return entryMapper.map(source, BookDTO.class, context);
+                    }
+                })
+                .build();
+
+        BookDTO bookDTO = mapper.map(createTestBook(), BookDTO.class);
+        assertTrue(bookDTO.getEntries().get(0) instanceof PhoneEntryDTO);
+
+        bookDTO = entryMapper.map(createTestBook(), BookDTO.class);
+        assertFalse(bookDTO.getEntries().get(0) instanceof PhoneEntryDTO);
+        assertTrue(bookDTO.getEntries().get(1) instanceof AddressEntryDTO);
+    }
+
     @Test(expected = StrictModeException.class)
     public void throwExceptionIfPropertyNotFoundInSource() {
         new Mapper()
@@ -346,6 +568,33 @@ public class MapperTest {
         assertEquals(1337, out.getEntries().get(1).getId());
     }
 
+    @Test
+    public void testHooksOrder() {
+        final List<String> calls = new ArrayList<String>();
+        Mapper mapper = new Mapper()
+                .hook(new Hook<Book, BookDTO>() {
+                    @Override
+                    public void extraMapping(Book from, BookDTO to) {
+                        calls.add("first");
+                    }
+                })
+                .hook(new Hook<PhoneEntry, PhoneEntryDTO>() {
+                    @Override
+                    public void extraMapping(PhoneEntry from, PhoneEntryDTO to) {
+                        calls.add("unrelated");
+                    }
+                })
+                .hook(new Hook<Book, BookDTO>() {
+                    @Override
+                    public void extraMapping(Book from, BookDTO to) {
+                        calls.add("second");
+                    }
+                });
+        mapper.map(new Book(1L, "Book"), BookDTO.class);
+        mapper.map(new Book(2L, "Book"), BookDTO.class);
+        assertEquals(Arrays.asList("first", "second", "first", "second"), calls);
+    }
+
     @Test
     public void testMapMapping() {
         Mapper mapper = new Mapper();
@@ -407,6 +656,346 @@ public class MapperTest {
         assertEquals(ModelWithEnumDTO.MyEnumDTO.A, output.getMyEnumsDTO().get(0));
     }
 
+    @Test
+    public void enumRenamesAndFallback() {
+        Mapper mapper = new Mapper()
+                .enumMapping(Status.ACTIVE, StatusDTO.ENABLED)
+                .enumFallback(StatusDTO.UNKNOWN);
+        assertEquals(StatusDTO.ENABLED, mapper.map(Status.ACTIVE, StatusDTO.class));
+        assertEquals(StatusDTO.SUSPENDED, mapper.map(Status.SUSPENDED, StatusDTO.class));
+        assertEquals(StatusDTO.UNKNOWN, mapper.map(Status.DELETED, StatusDTO.class));
+
+        // Renames only apply to the enum of the destination constant
+        assertEquals(Status.SUSPENDED, mapper.map(StatusDTO.SUSPENDED, Status.class));
+        assertNull(mapper.map(StatusDTO.ENABLED, Status.class));
+    }
+
+    @Test
+    public void enumRenamesOfBuiltMapperDontChange() {
+        MapperBuilder builder = new MapperBuilder().enumMapping(Status.ACTIVE, StatusDTO.ENABLED);
+        Mapper mapper = builder.build();
+        builder.enumMapping(Status.ACTIVE, Thread.State.RUNNABLE);
+
+        assertEquals(StatusDTO.ENABLED, mapper.map(Status.ACTIVE, StatusDTO.class));
+        assertNull(mapper.map(Status.ACTIVE, Thread.State.class));
+        assertEquals(Thread.State.RUNNABLE, builder.build().map(Status.ACTIVE, Thread.State.class));
+    }
+
+    @Test(expected = StrictModeException.class)
+    public void enumWithoutEquivalentInStrictMode() {
+        new Mapper().strictMode().map(Status.DELETED, StatusDTO.class);
+    }
+
+    @Test
+    public void enumSetsAndMaps() {
+        Mapper mapper = new Mapper().enumMapping(Status.ACTIVE, StatusDTO.ENABLED);
+        Set<Status> set = new HashSet<Status>(Arrays.asList(Status.ACTIVE, Status.SUSPENDED));
+        Collection<StatusDTO> mappedSet = mapper.map(set, StatusDTO.class, null);
+        assertTrue(mappedSet instanceof EnumSet);
+        assertEquals(EnumSet.of(StatusDTO.ENABLED, StatusDTO.SUSPENDED), mappedSet);
+
+        Map<Status, String> map = new HashMap<Status, String>();
+        map.put(Status.ACTIVE, "active");
+        map.put(Status.DELETED, "deleted");
+        Map<StatusDTO, String> mappedMap = mapper.map(map, StatusDTO.class, String.class);
+        assertTrue(mappedMap instanceof EnumMap);
+        assertEquals(1, mappedMap.size());
+        assertEquals("active", mappedMap.get(StatusDTO.ENABLED));
+    }
+
+    @Test
+    public void enumSetAndEnumMapProperties() {
+        StatusBoard input = new StatusBoard();
+        input.setFlags(new HashSet<Status>(Arrays.asList(Status.ACTIVE, Status.SUSPENDED)));
+        Map<Status, String> labels = new HashMap<Status, String>();
+        labels.put(Status.ACTIVE, "active");
+        input.setLabels(labels);
+
+        StatusBoardDTO output = new Mapper().strictMode()
+                .enumMapping(Status.ACTIVE, StatusDTO.ENABLED)
+                .map(input, StatusBoardDTO.class);
+        assertEquals(EnumSet.of(StatusDTO.ENABLED, StatusDTO.SUSPENDED), output.getFlags());
+        assertEquals(1, output.getLabels().size());
+        assertEquals("active", output.getLabels().get(StatusDTO.ENABLED));
+    }
+
+    @Test
+    public void mapIntoExistingInstance() {
+        Book book = createTestBook();
+        Mapper mapper = new Mapper()
+                .mapping(AddressEntry.class, AddressEntryDTO.class)
+                .mapping(PhoneEntry.class, PhoneEntryDTO.class);
+        BookDTO bookDTO = mapper.map(book, BookDTO.class);
+        List<BookEntryDTO> entries = bookDTO.getEntries();
+        Map<Long, BookEntryDTO> entriesById = bookDTO.getEntriesById();
+        PhoneEntryDTO phoneEntryDTO = (PhoneEntryDTO) entries.get(0);
+
+        book.setName("Updated");
+        ((PhoneEntry) book.getEntries().get(0)).setPhoneNumber("987654321");
+        assertSame(bookDTO, mapper.map(book, bookDTO));
+
+        assertEquals("Updated", bookDTO.getName());
+        assertSame(entries, bookDTO.getEntries());
+        assertSame(entriesById, bookDTO.getEntriesById());
+        assertSame(phoneEntryDTO, bookDTO.getEntries().get(0));
+        assertSame(phoneEntryDTO, bookDTO.getEntriesById().get(1L));
+        assertEquals("987654321", phoneEntryDTO.getPhoneNumber());
+        assertSame(bookDTO, phoneEntryDTO.getBookDTO());
+        assertEquals(2, entries.size());
+    }
+
+    @Test
+    public void mapIntoExistingInstanceWritesNulls() {
+        BookDTO bookDTO = new BookDTO();
+        bookDTO.setName("Outdated");
+        bookDTO.setEntries(new ArrayList<BookEntryDTO>());
+
+        new Mapper().map(new Book(1L, null), bookDTO);
+        assertEquals(Long.valueOf(1L), bookDTO.getId());
+        assertNull(bookDTO.getName());
+        assertNull(bookDTO.getEntries());
+    }
+
+    @Test
+    public void projection() {
+        Book book = createTestBook();
+        Mapper mapper = new Mapper()
+                .mapping(AddressEntry.class, AddressEntryDTO.class)
+                .mapping(PhoneEntry.class, PhoneEntryDTO.class);
+        BookDTO bookDTO = mapper.project(book, BookDTO.class, Projection.of("name", "entries.id"));
+        assertEquals("Book", bookDTO.getName());
+        assertNull(bookDTO.getId());
+        assertNull(bookDTO.getEntriesById());
+        assertEquals(2, bookDTO.getEntries().size());
+        assertEquals(1, bookDTO.getEntries().get(0).getId());
+        assertNull(bookDTO.getEntries().get(0).getBookDTO());
+        assertNull(((PhoneEntryDTO) bookDTO.getEntries().get(0)).getPhoneNumber());
+
+        List<BookDTO> bookDTOs = mapper.project(Arrays.asList(book), BookDTO.class, Projection.of("id"));
+        assertEquals(Long.valueOf(0L), bookDTOs.get(0).getId());
+        assertNull(bookDTOs.get(0).getName());
+
+        assertEquals(Projection.of("name", "entries.id"), Projection.of("entries.id", "name", "entries.id"));
+    }
+
+    @Test
+    public void projectionWithMaxDepth() {
+        Book book = createTestBook();
+        Mapper mapper = new Mapper()
+                .mapping(AddressEntry.class, AddressEntryDTO.class)
+                .mapping(PhoneEntry.class, PhoneEntryDTO.class);
+        BookDTO bookDTO = mapper.project(book, BookDTO.class, Projection.maxDepth(1));
+        assertEquals(Long.valueOf(0L), bookDTO.getId());
+        assertEquals("Book", bookDTO.getName());
+        assertNull(bookDTO.getEntries());
+        assertNull(bookDTO.getEntriesById());
+
+        bookDTO = mapper.project(book, BookDTO.class, Projection.maxDepth(2));
+        assertEquals(2, bookDTO.getEntries().size());
+        assertEquals("123456789", ((PhoneEntryDTO) bookDTO.getEntries().get(0)).getPhoneNumber());
+        assertNull(bookDTO.getEntries().get(0).getBookDTO());
+
+        bookDTO = mapper.project(book, BookDTO.class, Projection.of("name", "entries").withMaxDepth(1));
+        assertEquals("Book", bookDTO.getName());
+        assertNull(bookDTO.getEntries());
+    }
+
+    @Test
+    public void projectionDoesntReadOtherProperties() {
+        BookDTO bookDTO = new Mapper().strictMode()
+                .project(new NotLoadedBook(), BookDTO.class, Projection.of("name"));
+        assertEquals("Not loaded", bookDTO.getName());
+    }
+
+    @Test
+    public void lazyMode() {
+        final List<BookEntry> mappedEntries = new ArrayList<BookEntry>();
+        Mapper mapper = new Mapper()
+                .mapping(AddressEntry.class, AddressEntryDTO.class)
+                .mapping(PhoneEntry.class, PhoneEntryDTO.class)
+                .lazyMode()
+                .hook(new Hook<BookEntry, BookEntryDTO>() {
+                    @Override
+                    public void extraMapping(BookEntry from, BookEntryDTO to) {
+                        mappedEntries.add(from);
+                    }
+                });
+        BookDTO bookDTO = mapper.map(createTestBook(), BookDTO.class);
+        assertEquals("Book", bookDTO.getName());
+        assertTrue(Proxy.isProxyClass(bookDTO.getEntries().getClass()));
+        assertTrue(mappedEntries.isEmpty());
+
+        assertEquals(2, bookDTO.getEntries().size());
+        assertEquals(2, mappedEntries.size());
+        assertSame(bookDTO, bookDTO.getEntries().get(0).getBookDTO());
+        assertSame(bookDTO.getEntries().get(0), bookDTO.getEntriesById().get(1L));
+        assertEquals(2, mappedEntries.size());
+    }
+
+    @Test
+    public void lazyModeErrorsOnFirstUse() {
+        BookDTO bookDTO = new Mapper().lazyMode().map(new NotLoadedBook(), BookDTO.class);
+        assertEquals("Not loaded", bookDTO.getName());
+        try {
+            bookDTO.getEntries().isEmpty();
+            fail("The entries should have been mapped");
+        } catch (IllegalStateException e) {
+            assertEquals("Entries are not loaded", e.getMessage());
+        }
+    }
+
+    @Test
+    public void mapChanges() {
+        Book book = createTestBook();
+        Mapper mapper = new Mapper()
+                .mapping(AddressEntry.class, AddressEntryDTO.class)
+                .mapping(PhoneEntry.class, PhoneEntryDTO.class);
+        BookDTO bookDTO = mapper.map(book, BookDTO.class);
+        assertTrue(mapper.mapChanges(book, bookDTO).isEmpty());
+
+        book.setName("Updated");
+        ((PhoneEntry) book.getEntries().get(0)).setPhoneNumber("987654321");
+        ChangeSet changes = mapper.mapChanges(book, bookDTO);
+        assertEquals(2, changes.size());
+        assertEquals("name", changes.getChanges().get(0).getPath());
+        assertEquals("Book", changes.getChanges().get(0).getOldValue());
+        assertEquals("Updated", changes.getChanges().get(0).getNewValue());
+        assertEquals("entries[0].phoneNumber", changes.getChanges().get(1).getPath());
+        assertEquals("987654321", ((PhoneEntryDTO) bookDTO.getEntries().get(0)).getPhoneNumber());
+        assertTrue(mapper.mapChanges(book, bookDTO).isEmpty());
+    }
+
+    @Test
+    public void mapChangesOfResizedList() {
+        Book book = createTestBook();
+        Mapper mapper = new Mapper()
+                .mapping(AddressEntry.class, AddressEntryDTO.class)
+                .mapping(PhoneEntry.class, PhoneEntryDTO.class);
+        BookDTO bookDTO = mapper.map(book, BookDTO.class);
+        BookEntryDTO phoneEntryDTO = bookDTO.getEntries().get(0);
+
+        book.setEntries(book.getEntries().subList(0, 1));
+        ChangeSet changes = mapper.mapChanges(book, bookDTO);
+        assertEquals(1, changes.size());
+        assertEquals("entries", changes.getChanges().get(0).getPath());
+        assertEquals(2, ((List<?>) changes.getChanges().get(0).getOldValue()).size());
+        assertEquals(1, bookDTO.getEntries().size());
+        assertSame(phoneEntryDTO, bookDTO.getEntries().get(0));
+    }
+
+    @Test
+    public void mapChangesOfSetOfBeans() {
+        Shelf shelf = new Shelf();
+        shelf.setBooks(new HashSet<Book>(Arrays.asList(new Book(1L, "One"), new Book(2L, "Two"))));
+        Mapper mapper = new Mapper();
+        ShelfDTO shelfDTO = mapper.map(shelf, ShelfDTO.class);
+        Set<BookDTO> books = new HashSet<BookDTO>(shelfDTO.getBooks());
+
+        assertTrue(mapper.mapChanges(shelf, shelfDTO).isEmpty());
+        assertTrue(mapper.mapChanges(shelf, shelfDTO).isEmpty());
+        assertEquals(books, shelfDTO.getBooks());
+
+        shelf.getBooks().iterator().next().setName("Updated");
+        ChangeSet changes = mapper.mapChanges(shelf, shelfDTO);
+        assertEquals(1, changes.size());
+        assertEquals("books", changes.getChanges().get(0).getPath());
+        assertTrue(mapper.mapChanges(shelf, shelfDTO).isEmpty());
+    }
+
+    @Test
+    public void mapChangesOfLargeSetOfBeans() {
+        Shelf shelf = new Shelf();
+        shelf.setBooks(new HashSet<Book>());
+        for (long i = 0; i < 500; i++) shelf.getBooks().add(new Book(i, "Book " + i));
+        Mapper mapper = new Mapper();
+        ShelfDTO shelfDTO = mapper.map(shelf, ShelfDTO.class);
+        assertTrue(mapper.mapChanges(shelf, shelfDTO).isEmpty());
+
+        shelf.getBooks().add(new Book(500L, "Book 500"));
+        shelfDTO.getBooks().add(new BookDTO());
+        assertEquals(1, mapper.mapChanges(shelf, shelfDTO).size());
+        assertEquals(501, shelfDTO.getBooks().size());
+        assertTrue(mapper.mapChanges(shelf, shelfDTO).isEmpty());
+    }
+
+    @Test
+    public void mapChangesOfGeneratedPair() {
+        GeneratedModel in = new GeneratedModel();
+        in.setName("Test");
+        Mapper mapper = new Mapper();
+        GeneratedModelDTO out = mapper.map(in, GeneratedModelDTO.class);
+
+        // Changes are computed with a reflective plan, compiled once
+        assertEquals(1, mapper.mapChanges(in, out).size());
+        assertEquals("Test", out.getName());
+        assertTrue(mapper.mapChanges(in, out).isEmpty());
+        MappingPlan plan = mapper.getReflectivePlan(GeneratedModel.class, GeneratedModelDTO.class);
+        assertNull(plan.getGeneratedMapper());
+        assertSame(plan, mapper.getReflectivePlan(GeneratedModel.class, GeneratedModelDTO.class));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void mapIntoExistingCollection() {
+        new Mapper().map(Arrays.asList(createTestBook()), new ArrayList<BookDTO>());
+    }
+
+    @Test
+    public void fieldsToProperties() {
+        ModelWithFields input = new ModelWithFields();
+        input.name = "fields";
+        input.count = 42;
+        input.total = 1L << 40;
+        input.active = true;
+
+        // Nothing to read by default
+        assertNull(new Mapper().map(input, ModelWithFieldsDTO.class).getName());
+
+        Mapper mapper = new Mapper().propertyAccess(ModelWithFields.class, PropertyAccess.FIELDS);
+        ModelWithFieldsDTO output = mapper.map(input, ModelWithFieldsDTO.class);
+        assertEquals("fields", output.getName());
+        assertEquals(42L, output.getCount());
+        assertEquals(1L << 40, output.getTotal());
+        assertTrue(output.isActive());
+
+        for (MappingPlan.PropertyMapping property : mapper.getPlan(ModelWithFields.class, ModelWithFieldsDTO.class).getProperties()) {
+            if (property.getParameterType().isPrimitive()) assertNotNull(property.getPrimitiveCopier());
+        }
+    }
+
+    @Test
+    public void propertiesToFields() {
+        ModelWithFieldsDTO input = new ModelWithFieldsDTO();
+        input.setName("fields");
+        input.setCount(42L);
+        input.setTotal(1L << 40);
+        input.setActive(true);
+
+        ModelWithFields output = new MapperBuilder()
+                .propertyAccess(ModelWithFields.class, PropertyAccess.FIELDS)
+                .build()
+                .map(input, ModelWithFields.class);
+        assertEquals("fields", output.name);
+        assertEquals(42, output.count);
+        assertEquals(1L << 40, output.total);
+        assertTrue(output.active);
+    }
+
+    @Test
+    public void methodsAndFields() {
+        ModelWithFields input = new ModelWithFields();
+        input.name = "fields";
+        input.count = 42;
+
+        ModelWithSomeAccessors output = new Mapper()
+                .propertyAccess(ModelWithFields.class, PropertyAccess.FIELDS)
+                .propertyAccess(ModelWithSomeAccessors.class, PropertyAccess.METHODS_AND_FIELDS)
+                .strictMode()
+                .map(input, ModelWithSomeAccessors.class);
+        assertEquals("fields", output.getName());
+        assertEquals(42, output.count);
+        assertEquals("id", output.getId());
+    }
+
     @Test(expected = StrictModeException.class)
     public void testIncompatibleTypesStringToList_strictMode() {
         Mapper mapper = new Mapper().strictMode();
@@ -415,6 +1004,215 @@ public class MapperTest {
         mapper.map(input, ModelWithCollection.class);
     }
 
+    @Test
+    public void primitives() {
+        ModelWithPrimitives input = createPrimitives();
+        ModelWithPrimitives output = new Mapper().strictMode().map(input, ModelWithPrimitives.class);
+        assertEquals(1, output.getByteValue());
+        assertEquals(2, output.getShortValue());
+        assertEquals('c', output.getCharValue());
+        assertEquals(4, output.getIntValue());
+        assertEquals(5L, output.getLongValue());
+        assertEquals(6.5f, output.getFloatValue(), 0);
+        assertEquals(7.5, output.getDoubleValue(), 0);
+        assertTrue(output.isBooleanValue());
+    }
+
+    @Test
+    public void primitivesAreWidened() {
+        ModelWithWidePrimitives output = new Mapper().strictMode().map(createPrimitives(), ModelWithWidePrimitives.class);
+        assertEquals(1, output.getByteValue());
+        assertEquals(2, output.getShortValue());
+        assertEquals('c', output.getCharValue());
+        assertEquals(4L, output.getIntValue());
+        assertEquals(5f, output.getLongValue(), 0);
+        assertEquals(6.5, output.getFloatValue(), 0);
+        assertTrue(output.isBooleanValue());
+
+        // All the properties are copied without boxing
+        MappingPlan plan = MappingPlan.compile(ModelWithPrimitives.class, ModelWithWidePrimitives.class, Arrays.asList("DTO"),
+                new ConverterRegistry(), new CustomMappers());
+        for (MappingPlan.PropertyMapping property : plan.getProperties()) {
+            assertNotNull(property.getSetter().getName(), property.getPrimitiveCopier());
+        }
+    }
+
+    @Test
+    public void primitivesAreNarrowedOnlyIfExact() {
+        ModelWithWidePrimitives input = new ModelWithWidePrimitives();
+        input.setShortValue(100000);
+        input.setIntValue(4L);
+        input.setLongValue(5.5f);
+        input.setFloatValue(6.5);
+
+        ModelWithPrimitives output = new Mapper().map(input, ModelWithPrimitives.class);
+        assertEquals(0, output.getShortValue());
+        assertEquals(4, output.getIntValue());
+        assertEquals(0L, output.getLongValue());
+        assertEquals(6.5f, output.getFloatValue(), 0);
+    }
+
+    @Test
+    public void customMapperForPrimitives() {
+        ModelWithPrimitives output = new Mapper().strictMode()
+                .customMapper(new CustomMapper<Integer, Integer>() {
+                    @Override
+                    public Integer map(Integer source, MappingContext mappingContext) {
+                        return source * 10;
+                    }
+                })
+                .map(createPrimitives(), ModelWithPrimitives.class);
+        assertEquals(40, output.getIntValue());
+        assertEquals(5L, output.getLongValue());
+    }
+
+    @Test
+    public void converters() {
+        ModelWithStringValues input = new ModelWithStringValues();
+        input.setId("5a6f2c3e-0d4b-4f3e-9a7e-3c1d2b4a5f60");
+        input.setCount("42");
+        input.setState("NEW");
+        input.setDay("2014-03-01");
+
+        ModelWithTypedValues output = new Mapper().strictMode().map(input, ModelWithTypedValues.class);
+        assertEquals(UUID.fromString(input.getId()), output.getId());
+        assertEquals(Integer.valueOf(42), output.getCount());
+        assertEquals(Thread.State.NEW, output.getState());
+        assertEquals(LocalDate.of(2014, 3, 1), output.getDay());
+
+        ModelWithStringValues back = new Mapper().strictMode().map(output, ModelWithStringValues.class);
+        assertEquals(input.getId(), back.getId());
+        assertEquals("42", back.getCount());
+        assertEquals("NEW", back.getState());
+        assertEquals("2014-03-01", back.getDay());
+    }
+
+    @Test
+    public void customMappersOverrideConverters() {
+        ModelWithTypedValues input = new ModelWithTypedValues();
+        input.setCount(5);
+        ModelWithStringValues output = new Mapper().strictMode()
+                .customMapper(new CustomMapper<Integer, String>() {
+                    @Override
+                    public String map(Integer source, MappingContext mappingContext) {
+                        return "custom-" + source;
+                    }
+                })
+                .map(input, ModelWithStringValues.class);
+        assertEquals("custom-5", output.getCount());
+
+        ModelWithWidePrimitives widened = new Mapper().strictMode()
+                .customMapper(new CustomMapper<Integer, Long>() {
+                    @Override
+                    public Long map(Integer source, MappingContext mappingContext) {
+                        return 1000L + source;
+                    }
+                })
+                .map(createPrimitives(), ModelWithWidePrimitives.class);
+        assertEquals(1004L, widened.getIntValue());
+    }
+
+    @Test
+    public void customMapperForPrimitivesAddedAfterFirstMapping() {
+        Mapper mapper = new Mapper().strictMode();
+        assertEquals(4, mapper.map(createPrimitives(), ModelWithPrimitives.class).getIntValue());
+
+        mapper.customMapper(new CustomMapper<Integer, Integer>() {
+            @Override
+            public Integer map(Integer source, MappingContext mappingContext) {
+                return source * 10;
+            }
+        });
+        assertEquals(40, mapper.map(createPrimitives(), ModelWithPrimitives.class).getIntValue());
+    }
+
+    @Test
+    public void immutableValuesAreShared() {
+        ModelWithTypedValues input = new ModelWithTypedValues();
+        input.setId(UUID.randomUUID());
+        input.setDay(LocalDate.of(2014, 3, 1));
+
+        ModelWithTypedValues output = new Mapper().strictMode().map(input, ModelWithTypedValues.class);
+        assertSame(input.getId(), output.getId());
+        assertSame(input.getDay(), output.getDay());
+    }
+
+    @Test
+    public void customImmutableType() {
+        Price input = new Price();
+        input.setAmount(new Money(42));
+
+        // Money has no no-arg constructor, it can't be mapped
+        assertNull(new Mapper().map(input, Price.class).getAmount());
+
+        Price output = new Mapper().immutableType(Money.class).strictMode().map(input, Price.class);
+        assertSame(input.getAmount(), output.getAmount());
+    }
+
+    @Test
+    public void customConverter() {
+        ModelWithStringValues input = new ModelWithStringValues();
+        input.setCount("forty-two");
+
+        ModelWithTypedValues output = new Mapper()
+                .converter(String.class, Integer.class, new Converter<String, Integer>() {
+                    @Override
+                    public Integer convert(String source) {
+                        return source.length();
+                    }
+                })
+                .map(input, ModelWithTypedValues.class);
+        assertEquals(Integer.valueOf(9), output.getCount());
+    }
+
+    @Test(expected = StrictModeException.class)
+    public void failedConversionInStrictMode() {
+        ModelWithStringValues input = new ModelWithStringValues();
+        input.setCount("forty-two");
+        new Mapper().strictMode().map(input, ModelWithTypedValues.class);
+    }
+
+    @Test
+    public void arrays() {
+        Book book = new Book(1L, "Book");
+        ModelWithArrays input = new ModelWithArrays();
+        input.setSamples(new double[]{1.5, 2.5});
+        input.setCounts(new int[]{1, 2, 3});
+        input.setTags(new String[]{"a", "b"});
+        input.setEntries(new BookEntry[]{new BookEntry(1, book), null, new BookEntry(2, book)});
+        input.setBooks(Arrays.asList(book, new Book(2L, "Book2")));
+
+        ModelWithArraysDTO output = new Mapper().strictMode().map(input, ModelWithArraysDTO.class);
+        assertArrayEquals(input.getSamples(), output.getSamples(), 0);
+        assertNotSame(input.getSamples(), output.getSamples());
+        assertArrayEquals(new long[]{1, 2, 3}, output.getCounts());
+        assertEquals(Arrays.asList("a", "b"), output.getTags());
+
+        BookEntryDTO[] entries = output.getEntries();
+        assertEquals(3, entries.length);
+        assertEquals(1, entries[0].getId());
+        assertNull(entries[1]);
+        assertSame(entries[0].getBookDTO(), entries[2].getBookDTO());
+
+        assertEquals(2, output.getBooks().length);
+        assertSame(entries[0].getBookDTO(), output.getBooks()[0]);
+        assertEquals("Book2", output.getBooks()[1].getName());
+    }
+
+    @Test
+    public void arraysBackToCollections() {
+        ModelWithArraysDTO input = new ModelWithArraysDTO();
+        input.setCounts(new long[]{1});
+        input.setTags(Arrays.asList("a", "b"));
+        input.setBooks(new BookDTO[]{new BookDTO()});
+
+        // long[] can't be narrowed to int[]
+        ModelWithArrays output = new Mapper().map(input, ModelWithArrays.class);
+        assertNull(output.getCounts());
+        assertArrayEquals(new String[]{"a", "b"}, output.getTags());
+        assertEquals(1, output.getBooks().size());
+    }
+
     @Test
     public void testIncompatibleTypesStringToList() {
         Mapper mapper = new Mapper();
@@ -457,6 +1255,67 @@ public class MapperTest {
         assertEquals(1, output.getData().size());
     }
 
+    @Test
+    public void collectionTypesArePreserved() {
+        ModelWithCollectionTypes input = new ModelWithCollectionTypes();
+        input.setSorted(new TreeSet<String>(Arrays.asList("b", "a")));
+        input.setQueue(new LinkedList<String>(Arrays.asList("a", "b")));
+        Map<String, Long> ordered = new LinkedHashMap<String, Long>();
+        ordered.put("b", 2L);
+        ordered.put("a", 1L);
+        input.setOrdered(ordered);
+        input.setStates(EnumSet.of(Thread.State.NEW, Thread.State.RUNNABLE));
+
+        ModelWithCollectionTypes output = new Mapper().strictMode().map(input, ModelWithCollectionTypes.class);
+        assertTrue(output.getSorted() instanceof TreeSet);
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<String>(output.getSorted()));
+        assertTrue(output.getQueue() instanceof ArrayDeque);
+        assertEquals("a", output.getQueue().peek());
+        assertTrue(output.getOrdered() instanceof LinkedHashMap);
+        assertEquals(Arrays.asList("b", "a"), new ArrayList<String>(output.getOrdered().keySet()));
+        assertTrue(output.getStates() instanceof EnumSet);
+        assertEquals(EnumSet.of(Thread.State.NEW, Thread.State.RUNNABLE), output.getStates());
+    }
+
+    @Test
+    public void sortedSetOfNonComparableKeepsOrder() {
+        Comparator<Book> byName = new Comparator<Book>() {
+            @Override
+            public int compare(Book o1, Book o2) {
+                return o1.getName().compareTo(o2.getName());
+            }
+        };
+        Set<Book> books = new TreeSet<Book>(byName);
+        books.add(new Book(1L, "b"));
+        books.add(new Book(2L, "a"));
+
+        Set<BookDTO> bookDTOs = new Mapper().map(books, BookDTO.class);
+        Iterator<BookDTO> iterator = bookDTOs.iterator();
+        assertEquals("a", iterator.next().getName());
+        assertEquals("b", iterator.next().getName());
+    }
+
+    @Test
+    public void customCollectionFactory() {
+        Mapper mapper = new Mapper().collectionFactory(new CollectionFactory() {
+            @Override
+            public Collection<?> newCollection(Object source, Class<?> destinationType, Class<?> elementType, int size) {
+                return destinationType.isAssignableFrom(CopyOnWriteArrayList.class) && source instanceof List
+                        ? new CopyOnWriteArrayList<Object>() : null;
+            }
+
+            @Override
+            public Map<?, ?> newMap(Map<?, ?> source, Class<?> destinationType, Class<?> keyType, int size) {
+                return null;
+            }
+        });
+
+        List<String> list = mapper.map(Arrays.asList("a", "b"), String.class);
+        assertTrue(list instanceof CopyOnWriteArrayList);
+        Set<String> set = mapper.map(new HashSet<String>(Arrays.asList("a")), String.class);
+        assertTrue(set instanceof HashSet);
+    }
+
     @Test
     public void testSet_direct() {
         Mapper mapper = new Mapper().strictMode();
@@ -528,6 +1387,133 @@ public class MapperTest {
         assertEquals(book.getName(), newBook.getName());
     }
 
+    @Test
+    public void mappingPlanIsReusedAcrossCalls() {
+        Mapper mapper = new Mapper()
+                .mapping(AddressEntry.class, AddressEntryDTO.class)
+                .mapping(PhoneEntry.class, PhoneEntryDTO.class);
+        for (long id = 0; id < 3; id++) {
+            BookDTO bookDTO = mapper.map(createTestBook(id), BookDTO.class);
+            assertEquals(Long.valueOf(id), bookDTO.getId());
+            assertEquals("123456789", ((PhoneEntryDTO) bookDTO.getEntries().get(0)).getPhoneNumber());
+            assertEquals("Paris", ((AddressEntryDTO) bookDTO.getEntries().get(1)).getCity());
+        }
+    }
+
+    @Test
+    public void precompile() {
+        Mapper mapper = new Mapper()
+                .mapping(AddressEntry.class, AddressEntryDTO.class)
+                .mapping(PhoneEntry.class, PhoneEntryDTO.class);
+
+        // Book, BookEntry and its two subclasses
+        PrecompilationReport report = mapper.precompile(Book.class, BookDTO.class);
+        assertEquals(4, report.getPlanCount());
+
+        BookDTO bookDTO = mapper.map(createTestBook(), BookDTO.class);
+        assertEquals("123456789", ((PhoneEntryDTO) bookDTO.getEntries().get(0)).getPhoneNumber());
+        assertEquals("Paris", ((AddressEntryDTO) bookDTO.getEntries().get(1)).getCity());
+    }
+
+    @Test
+    public void precompileRegisteredMappings() {
+        Mapper mapper = new MapperBuilder()
+                .mapping(AddressEntry.class, AddressEntryDTO.class)
+                .mapping(PhoneEntry.class, PhoneEntryDTO.class)
+                .build();
+        // Both entries, the Book they reference, and BookEntry
+        assertEquals(4, mapper.precompile().getPlanCount());
+    }
+
+    @Test
+    public void typedMapper() {
+        TypedMapper<Book, BookDTO> bookMapper = new Mapper()
+                .mapping(AddressEntry.class, AddressEntryDTO.class)
+                .mapping(PhoneEntry.class, PhoneEntryDTO.class)
+                .forTypes(Book.class, BookDTO.class);
+
+        BookDTO bookDTO = bookMapper.map(createTestBook());
+        assertEquals("123456789", ((PhoneEntryDTO) bookDTO.getEntries().get(0)).getPhoneNumber());
+        assertSame(bookDTO, bookDTO.getEntries().get(1).getBookDTO());
+        assertNull(bookMapper.map(null));
+
+        // Subclasses are mapped the usual way
+        assertTrue(bookMapper.map(new EqualBook(1L, "Book")) != null);
+    }
+
+    @Test
+    public void typedMapperList() {
+        Book book = new Book(0L, "Book");
+        TypedMapper<BookEntry, BookEntryDTO> entryMapper = new Mapper().forTypes(BookEntry.class, BookEntryDTO.class);
+        List<BookEntryDTO> entryDTOs = entryMapper.mapList(Arrays.asList(new BookEntry(1, book), null, new BookEntry(2, book)));
+        assertEquals(2, entryDTOs.size());
+        assertSame(entryDTOs.get(0).getBookDTO(), entryDTOs.get(1).getBookDTO());
+    }
+
+    @Test
+    public void typedMapperWithCustomMapper() {
+        TypedMapper<Book, BookDTO> bookMapper = new Mapper()
+                .customMapper(new CustomMapper<Book, BookDTO>() {
+                    @Override
+                    public BookDTO map(Book source, MappingContext context) {
+                        BookDTO bookDTO = new BookDTO();
+                        bookDTO.setName("Custom");
+                        return bookDTO;
+                    }
+                })
+                .forTypes(Book.class, BookDTO.class);
+        assertEquals("Custom", bookMapper.map(createTestBook()).getName());
+    }
+
+    @Test
+    public void nonPublicModelFallsBackToReflection() {
+        NonPublicModel in = new NonPublicModel();
+        in.setName("Test");
+        NonPublicModel out = new Mapper().strictMode().map(in, NonPublicModel.class);
+        assertEquals("Test", out.getName());
+    }
+
+    @Test
+    public void generatedMapperIsUsedForItsPair() {
+        GeneratedModel in = new GeneratedModel();
+        in.setName("Test");
+        GeneratedModelDTO out = new Mapper().map(in, GeneratedModelDTO.class);
+        assertEquals("Test (generated)", out.getName());
+    }
+
+    @Test
+    public void staleGeneratedMapperIsSkipped() throws Exception {
+        File directory = Files.createTempDirectory("simple-mapper").toFile();
+        File services = new File(directory, "META-INF/services/" + GeneratedMapper.class.getName());
+        assertTrue(services.getParentFile().mkdirs());
+        Files.write(services.toPath(), "com.joanzapata.mapper.RemovedMapper\n".getBytes("UTF-8"));
+
+        ClassLoader previous = Thread.currentThread().getContextClassLoader();
+        URLClassLoader classLoader = new URLClassLoader(new URL[]{directory.toURI().toURL()}, getClass().getClassLoader());
+        Thread.currentThread().setContextClassLoader(classLoader);
+        try {
+            GeneratedModel in = new GeneratedModel();
+            in.setName("Test");
+            assertEquals("Test (generated)", new Mapper().map(in, GeneratedModelDTO.class).getName());
+        } finally {
+            Thread.currentThread().setContextClassLoader(previous);
+            classLoader.close();
+        }
+    }
+
+    private ModelWithPrimitives createPrimitives() {
+        ModelWithPrimitives primitives = new ModelWithPrimitives();
+        primitives.setByteValue((byte) 1);
+        primitives.setShortValue((short) 2);
+        primitives.setCharValue('c');
+        primitives.setIntValue(4);
+        primitives.setLongValue(5L);
+        primitives.setFloatValue(6.5f);
+        primitives.setDoubleValue(7.5);
+        primitives.setBooleanValue(true);
+        return primitives;
+    }
+
     private Book createTestBook() {
         return createTestBook(0L);
     }
@@ -564,6 +1550,14 @@ public class MapperTest {
         A, B, C
     }
 
+    public static enum Status {
+        ACTIVE, SUSPENDED, DELETED
+    }
+
+    public static enum StatusDTO {
+        ENABLED, SUSPENDED, UNKNOWN
+    }
+
     public static class A {
     }
 
@@ -611,4 +1605,182 @@ public class MapperTest {
             this.testOtherDTO = testOtherDTO;
         }
     }
+
+    static class NonPublicModel {
+        private String name;
+
+        public NonPublicModel() {
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class GeneratedModel {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+
+    public static class GeneratedModelDTO extends GeneratedModel {
+    }
+
+    /** Registered as a service in the test resources, as the processor would do. */
+    public static class GeneratedModelMapper implements GeneratedMapper<GeneratedModel, GeneratedModelDTO> {
+
+        @Override
+        public Class<GeneratedModel> getSourceClass() {
+            return GeneratedModel.class;
+        }
+
+        @Override
+        public Class<GeneratedModelDTO> getDestinationClass() {
+            return GeneratedModelDTO.class;
+        }
+
+        @Override
+        public void map(GeneratedModel source, GeneratedModelDTO destination, Callback callback) {
+            destination.setName(callback.map(source.getName(), String.class) + " (generated)");
+        }
+    }
+
+    /** Books are equal when they have the same id */
+    public static class EqualBook extends Book {
+        public EqualBook(Long id, String name) {
+            super(id, name);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Book && ((Book) o).getId().equals(getId());
+        }
+
+        @Override
+        public int hashCode() {
+            return getId().hashCode();
+        }
+    }
+
+    public static class NotLoadedBook {
+        public String getName() {
+            return "Not loaded";
+        }
+
+        public List<BookEntry> getEntries() {
+            return new AbstractList<BookEntry>() {
+                @Override
+                public BookEntry get(int index) {
+                    throw new IllegalStateException("Entries are not loaded");
+                }
+
+                @Override
+                public int size() {
+                    throw new IllegalStateException("Entries are not loaded");
+                }
+            };
+        }
+    }
+
+    public static final class Money {
+        private final long cents;
+
+        public Money(long cents) {
+            this.cents = cents;
+        }
+
+        public long getCents() {
+            return cents;
+        }
+    }
+
+    public static class Price {
+        private Money amount;
+
+        public Money getAmount() {
+            return amount;
+        }
+
+        public void setAmount(Money amount) {
+            this.amount = amount;
+        }
+    }
+
+    public static class Shelf {
+        private Set<Book> books;
+
+        public Set<Book> getBooks() {
+            return books;
+        }
+
+        public void setBooks(Set<Book> books) {
+            this.books = books;
+        }
+    }
+
+    public static class ShelfDTO {
+        private Set<BookDTO> books;
+
+        public Set<BookDTO> getBooks() {
+            return books;
+        }
+
+        public void setBooks(Set<BookDTO> books) {
+            this.books = books;
+        }
+    }
+
+    public static class StatusBoard {
+        private Set<Status> flags;
+
+        private Map<Status, String> labels;
+
+        public Set<Status> getFlags() {
+            return flags;
+        }
+
+        public void setFlags(Set<Status> flags) {
+            this.flags = flags;
+        }
+
+        public Map<Status, String> getLabels() {
+            return labels;
+        }
+
+        public void setLabels(Map<Status, String> labels) {
+            this.labels = labels;
+        }
+    }
+
+    public static class StatusBoardDTO {
+        private EnumSet<StatusDTO> flags;
+
+        private EnumMap<StatusDTO, String> labels;
+
+        public EnumSet<StatusDTO> getFlags() {
+            return flags;
+        }
+
+        public void setFlags(EnumSet<StatusDTO> flags) {
+            this.flags = flags;
+        }
+
+        public EnumMap<StatusDTO, String> getLabels() {
+            return labels;
+        }
+
+        public void setLabels(EnumMap<StatusDTO, String> labels) {
+            this.labels = labels;
+        }
+    }
 }
@@ -0,0 +1,118 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper;
+
+import com.joanzapata.mapper.model.Book;
+import com.joanzapata.mapper.model.BookDTO;
+import com.joanzapata.mapper.model.BookEntry;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.Assert.*;
+
+public class PlanCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final ConverterRegistry converters = new ConverterRegistry();
+
+    private final CustomMappers customMappers = new CustomMappers();
+
+    @Test
+    public void missingFile() {
+        PlanCache cache = new PlanCache(new File(folder.getRoot(), "plans"));
+        assertNull(cache.restore(Book.class, BookDTO.class, converters, customMappers));
+    }
+
+    @Test
+    public void savedPlanIsRestored() {
+        File file = new File(folder.getRoot(), "plans");
+        MappingPlan plan = MappingPlan.compile(Book.class, BookDTO.class, asList("DTO", "BO"), converters, customMappers);
+        new PlanCache(file).save(Collections.singletonList(plan));
+
+        MappingPlan restored = new PlanCache(file).restore(Book.class, BookDTO.class, converters, customMappers);
+        assertNotNull(restored);
+        List<MappingPlan.PropertyMapping> properties = plan.getProperties();
+        assertEquals(properties.size(), restored.getProperties().size());
+        for (int i = 0; i < properties.size(); i++) {
+            assertEquals(properties.get(i).getSetter(), restored.getProperties().get(i).getSetter());
+            assertEquals(properties.get(i).getGetter(), restored.getProperties().get(i).getGetter());
+        }
+    }
+
+    @Test
+    public void changedClassIsNotRestored() throws IOException {
+        File file = new File(folder.getRoot(), "plans");
+        Writer writer = new OutputStreamWriter(new FileOutputStream(file), "UTF-8");
+        writer.write("# simple-mapper plan cache v1\n");
+        writer.write(Book.class.getName() + "|" + BookDTO.class.getName() + "|0-0|setId(long)=getId\n");
+        writer.close();
+
+        assertNull(new PlanCache(file).restore(Book.class, BookDTO.class, converters, customMappers));
+    }
+
+    @Test
+    public void otherPlansOfTheFileAreKept() {
+        File file = new File(folder.getRoot(), "plans");
+        new PlanCache(file).save(Collections.singletonList(
+                MappingPlan.compile(Book.class, BookDTO.class, asList("DTO", "BO"), converters, customMappers)));
+        new PlanCache(file).save(Collections.singletonList(
+                MappingPlan.compile(BookEntry.class, BookDTO.class, asList("DTO", "BO"), converters, customMappers)));
+
+        PlanCache cache = new PlanCache(file);
+        assertNotNull(cache.restore(Book.class, BookDTO.class, converters, customMappers));
+        assertNotNull(cache.restore(BookEntry.class, BookDTO.class, converters, customMappers));
+    }
+
+    @Test
+    public void mapperReusesSavedPlans() {
+        File file = new File(folder.getRoot(), "plans");
+        Mapper mapper = new Mapper().planCache(file);
+        mapper.map(new Book(1L, "Book"), BookDTO.class);
+        mapper.savePlanCache();
+
+        BookDTO bookDTO = new Mapper().planCache(file).map(new Book(2L, "Book2"), BookDTO.class);
+        assertEquals(Long.valueOf(2), bookDTO.getId());
+        assertEquals("Book2", bookDTO.getName());
+    }
+
+    @Test
+    public void projectedPlansAreNotSaved() {
+        File file = new File(folder.getRoot(), "plans");
+        Mapper mapper = new Mapper().planCache(file);
+        mapper.project(new Book(1L, "Book"), BookDTO.class, Projection.of("id"));
+        mapper.map(new Book(1L, "Book"), BookDTO.class);
+        mapper.savePlanCache();
+
+        BookDTO bookDTO = new Mapper().planCache(file).map(new Book(2L, "Book2"), BookDTO.class);
+        assertEquals(Long.valueOf(2), bookDTO.getId());
+        assertEquals("Book2", bookDTO.getName());
+    }
+}
@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.model;
+
+import java.util.List;
+
+public class ModelWithArraysDTO {
+
+    private double[] samples;
+
+    private long[] counts;
+
+    private List<String> tags;
+
+    private BookEntryDTO[] entries;
+
+    private BookDTO[] books;
+
+    public double[] getSamples() {
+        return samples;
+    }
+
+    public void setSamples(double[] samples) {
+        this.samples = samples;
+    }
+
+    public long[] getCounts() {
+        return counts;
+    }
+
+    public void setCounts(long[] counts) {
+        this.counts = counts;
+    }
+
+    public List<String> getTags() {
+        return tags;
+    }
+
+    public void setTags(List<String> tags) {
+        this.tags = tags;
+    }
+
+    public BookEntryDTO[] getEntries() {
+        return entries;
+    }
+
+    public void setEntries(BookEntryDTO[] entries) {
+        this.entries = entries;
+    }
+
+    public BookDTO[] getBooks() {
+        return books;
+    }
+
+    public void setBooks(BookDTO[] books) {
+        this.books = books;
+    }
+}
@@ -0,0 +1,67 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.model;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.SortedSet;
+
+public class ModelWithCollectionTypes {
+
+    private SortedSet<String> sorted;
+
+    private Queue<String> queue;
+
+    private Map<String, Long> ordered;
+
+    private Set<Thread.State> states;
+
+    public SortedSet<String> getSorted() {
+        return sorted;
+    }
+
+    public void setSorted(SortedSet<String> sorted) {
+        this.sorted = sorted;
+    }
+
+    public Queue<String> getQueue() {
+        return queue;
+    }
+
+    public void setQueue(Queue<String> queue) {
+        this.queue = queue;
+    }
+
+    public Map<String, Long> getOrdered() {
+        return ordered;
+    }
+
+    public void setOrdered(Map<String, Long> ordered) {
+        this.ordered = ordered;
+    }
+
+    public Set<Thread.State> getStates() {
+        return states;
+    }
+
+    public void setStates(Set<Thread.State> states) {
+        this.states = states;
+    }
+}
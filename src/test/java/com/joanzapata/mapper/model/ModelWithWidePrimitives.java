@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one
+ * or more contributor license agreements.  See the NOTICE file
+ * distributed with this work for additional information
+ * regarding copyright ownership.  The ASF licenses this file
+ * to you under the Apache License, Version 2.0 (the
+ * "License"); you may not use this file except in compliance
+ * with the License.  You may obtain a copy of the License at
+ *
+ *  http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing,
+ * software distributed under the License is distributed on an
+ * "AS IS" BASIS, WITHOUT WARRANTIES OR CONDITIONS OF ANY
+ * KIND, either express or implied.  See the License for the
+ * specific language governing permissions and limitations
+ * under the License.
+ */
+package com.joanzapata.mapper.model;
+
+public class ModelWithWidePrimitives {
+
+    private short byteValue;
+
+    private int shortValue;
+
+    private int charValue;
+
+    private long intValue;
+
+    private float longValue;
+
+    private double floatValue;
+
+    private double doubleValue;
+
+    private boolean booleanValue;
+
+    public short getByteValue() {
+        return byteValue;
+    }
+
+    public void setByteValue(short byteValue) {
+        this.byteValue = byteValue;
+    }
+
+    public int getShortValue() {
+        return shortValue;
+    }
+
+    public void setShortValue(int shortValue) {
+        this.shortValue = shortValue;
+    }
+
+    public int getCharValue() {
+        return charValue;
+    }
+
+    public void setCharValue(int charValue) {
+        this.charValue = charValue;
+    }
+
+    public long getIntValue() {
+        return intValue;
+    }
+
+    public void setIntValue(long intValue) {
+        this.intValue = intValue;
+    }
+
+    public float getLongValue() {
+        return longValue;
+    }
+
+    public void setLongValue(float longValue) {
+        this.longValue = longValue;
+    }
+
+    public double getFloatValue() {
+        return floatValue;
+    }
+
+    public void setFloatValue(double floatValue) {
+        this.floatValue = floatValue;
+    }
+
+    public double getDoubleValue() {
+        return doubleValue;
+    }
+
+    public void setDoubleValue(double doubleValue) {
+        this.doubleValue = doubleValue;
+    }
+
+    public boolean isBooleanValue() {
+        return booleanValue;
+    }
+
+    public void setBooleanValue(boolean booleanValue) {
+        this.booleanValue = booleanValue;
+    }
+}